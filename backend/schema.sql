@@ -12,9 +12,16 @@ USE grengcry;
 -- ============================================
 -- Drop Tables (if exists) - in correct order
 -- ============================================
+DROP TABLE IF EXISTS order_items_archive;
+DROP TABLE IF EXISTS orders_archive;
+DROP TABLE IF EXISTS outbox_events;
+DROP TABLE IF EXISTS idempotency_keys;
 DROP TABLE IF EXISTS feedback;
 DROP TABLE IF EXISTS order_items;
 DROP TABLE IF EXISTS orders;
+DROP TABLE IF EXISTS order_item_seq;
+DROP TABLE IF EXISTS order_seq;
+DROP TABLE IF EXISTS product_seq;
 DROP TABLE IF EXISTS products;
 DROP TABLE IF EXISTS users;
 
@@ -31,7 +38,9 @@ CREATE TABLE users (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
     INDEX idx_email (email),
-    INDEX idx_role (role)
+    INDEX idx_role (role),
+    INDEX idx_created_id (created_at, id),
+    INDEX idx_role_created_id (role, created_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ============================================
@@ -45,6 +54,8 @@ CREATE TABLE products (
     price DECIMAL(10, 2) NOT NULL,
     stock INT NOT NULL DEFAULT 0,
     image VARCHAR(500),
+    image_thumb VARCHAR(255),
+    image_medium VARCHAR(255),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
@@ -52,11 +63,26 @@ CREATE TABLE products (
     INDEX idx_name (name),
     INDEX idx_price (price),
     INDEX idx_created_at (created_at),
+    INDEX idx_created_id (created_at, id),
     
     CONSTRAINT chk_price_positive CHECK (price > 0),
     CONSTRAINT chk_stock_non_negative CHECK (stock >= 0)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Id sources for the optional 'pooled-ids' profile; Hibernate emulates each
+-- sequence with a one-row table. Seeded after the sample data below.
+CREATE TABLE product_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+CREATE TABLE order_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+CREATE TABLE order_item_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
 -- ============================================
 -- Table: orders
 -- ============================================
@@ -65,12 +91,16 @@ CREATE TABLE orders (
     user_id BIGINT NOT NULL,
     total DECIMAL(10, 2) NOT NULL,
     status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    stock_pending BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
-    INDEX idx_user_id (user_id),
+    INDEX idx_user_created_id (user_id, created_at, id),
     INDEX idx_status (status),
     INDEX idx_created_at (created_at),
+    INDEX idx_created_id (created_at, id),
+    INDEX idx_status_created_id (status, created_at, id),
+    INDEX idx_stock_pending (stock_pending),
     
     CONSTRAINT fk_orders_user 
         FOREIGN KEY (user_id) 
@@ -130,6 +160,110 @@ CREATE TABLE feedback (
     CONSTRAINT chk_rating_range CHECK (rating >= 1 AND rating <= 5)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ============================================
+-- Table: idempotency_keys
+-- ============================================
+CREATE TABLE idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    order_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    UNIQUE KEY uk_user_key (user_id, idempotency_key),
+    INDEX idx_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================
+-- Table: outbox_events
+-- ============================================
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(40) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NULL,
+    last_error VARCHAR(500),
+    
+    INDEX idx_outbox_pending (published_at, id),
+    INDEX idx_outbox_aggregate (aggregate_id, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================
+-- Table: orders_archive / order_items_archive
+-- ============================================
+-- Delivered and cancelled orders past the retention window, moved here by
+-- OrderArchiveService. Partitioned by month on created_at, so a whole month
+-- can be exported or dropped with ALTER TABLE ... EXCHANGE/DROP PARTITION.
+-- Partitioned InnoDB tables cannot have foreign keys, which is why the live
+-- tables stay unpartitioned and are kept small by archiving instead.
+-- The partitions below are only the starting point: each archive run
+-- (OrderArchiveService.maintainPartitions) splits p_future so every month up to
+-- orders.archive.partitions-ahead-months from now gets its own partition,
+-- filling any months missed since the last run. The application's database
+-- user needs ALTER on both archive tables for that.
+CREATE TABLE orders_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    total DECIMAL(10, 2) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME,
+    archived_at DATETIME,
+    
+    PRIMARY KEY (id, created_at),
+    INDEX idx_archive_user_created (user_id, created_at),
+    INDEX idx_archive_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION p_before_2025 VALUES LESS THAN ('2025-01-01'),
+    PARTITION p2025_01 VALUES LESS THAN ('2025-02-01'),
+    PARTITION p2025_02 VALUES LESS THAN ('2025-03-01'),
+    PARTITION p2025_03 VALUES LESS THAN ('2025-04-01'),
+    PARTITION p2025_04 VALUES LESS THAN ('2025-05-01'),
+    PARTITION p2025_05 VALUES LESS THAN ('2025-06-01'),
+    PARTITION p2025_06 VALUES LESS THAN ('2025-07-01'),
+    PARTITION p2025_07 VALUES LESS THAN ('2025-08-01'),
+    PARTITION p2025_08 VALUES LESS THAN ('2025-09-01'),
+    PARTITION p2025_09 VALUES LESS THAN ('2025-10-01'),
+    PARTITION p2025_10 VALUES LESS THAN ('2025-11-01'),
+    PARTITION p2025_11 VALUES LESS THAN ('2025-12-01'),
+    PARTITION p2025_12 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+CREATE TABLE order_items_archive (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    created_at DATETIME NOT NULL,
+    
+    PRIMARY KEY (id, created_at),
+    INDEX idx_archive_order_id (order_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION p_before_2025 VALUES LESS THAN ('2025-01-01'),
+    PARTITION p2025_01 VALUES LESS THAN ('2025-02-01'),
+    PARTITION p2025_02 VALUES LESS THAN ('2025-03-01'),
+    PARTITION p2025_03 VALUES LESS THAN ('2025-04-01'),
+    PARTITION p2025_04 VALUES LESS THAN ('2025-05-01'),
+    PARTITION p2025_05 VALUES LESS THAN ('2025-06-01'),
+    PARTITION p2025_06 VALUES LESS THAN ('2025-07-01'),
+    PARTITION p2025_07 VALUES LESS THAN ('2025-08-01'),
+    PARTITION p2025_08 VALUES LESS THAN ('2025-09-01'),
+    PARTITION p2025_09 VALUES LESS THAN ('2025-10-01'),
+    PARTITION p2025_10 VALUES LESS THAN ('2025-11-01'),
+    PARTITION p2025_11 VALUES LESS THAN ('2025-12-01'),
+    PARTITION p2025_12 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
 -- ============================================
 -- Insert Sample Data (Optional)
 -- ============================================
@@ -154,6 +288,9 @@ INSERT INTO products (name, description, category, price, stock, image) VALUES
 ('Canon EOS R6', 'Full-frame mirrorless camera', 'Cameras', 2499.99, 20, 'canon-r6.jpg'),
 ('GoPro Hero 11', 'Action camera for adventures', 'Cameras', 399.99, 100, 'gopro-hero11.jpg');
 
+-- Pooled ids continue after the highest existing product id
+INSERT INTO product_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM products;
+
 -- Sample Orders
 INSERT INTO orders (user_id, total, status) VALUES
 (2, 1299.99, 'DELIVERED'),
@@ -167,6 +304,10 @@ INSERT INTO order_items (order_id, product_id, quantity, price) VALUES
 (2, 6, 1, 249.99),
 (3, 9, 1, 2499.99);
 
+-- Pooled order ids continue after the highest existing ones
+INSERT INTO order_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM orders;
+INSERT INTO order_item_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM order_items;
+
 -- Sample Feedback
 INSERT INTO feedback (user_id, rating, comment) VALUES
 (2, 5, 'Excellent service! Product arrived on time and in perfect condition.'),
@@ -1,19 +1,17 @@
 package com.grengcry.config;
 
+import com.grengcry.util.OpenFileCache;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
-    
-    @Value("${file.upload-dir}")
-    private String uploadDir;
-    
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadDir);
+
+    // /uploads/** is served by UploadController (range requests, sendfile), not a resource handler
+    @Bean
+    public OpenFileCache uploadFileCache(@Value("${file.serving.max-open-files:256}") int maxOpenFiles) {
+        return new OpenFileCache(maxOpenFiles);
     }
 }
@@ -0,0 +1,101 @@
+package com.grengcry.controller;
+
+import com.grengcry.dto.response.ApiResponse;
+import com.grengcry.dto.response.DashboardResponse;
+import com.grengcry.event.OutboxDispatcher;
+import com.grengcry.exception.ConflictException;
+import com.grengcry.search.ProductSearchIndex;
+import com.grengcry.service.DashboardService;
+import com.grengcry.service.OrderArchiveService;
+import com.grengcry.service.ProductCache;
+import com.grengcry.service.UserCache;
+import com.grengcry.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private UserCache userCache;
+
+    // GET /api/admin/dashboard (Admin Only)
+    // Order counts per status, orders and revenue per day, best sellers; served from memory
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardResponse> getDashboard() {
+        return ResponseEntity.ok(dashboardService.getDashboard());
+    }
+
+    // POST /api/admin/dashboard/rebuild (Admin Only)
+    // Recomputes the dashboard from the orders tables, e.g. after editing orders directly in the database
+    @PostMapping("/dashboard/rebuild")
+    public ResponseEntity<ApiResponse<String>> rebuildDashboard() {
+        if (!dashboardService.rebuild()) {
+            throw new ConflictException("A dashboard rebuild is already running");
+        }
+        return ResponseEntity.ok(ApiResponse.success("Dashboard rebuilt."));
+    }
+
+    // GET /api/admin/cache/products (Admin Only)
+    // Hit/miss/eviction counters used to size the product cache
+    @GetMapping("/cache/products")
+    public ResponseEntity<Map<String, BoundedCache.Stats>> getProductCacheStats() {
+        return ResponseEntity.ok(productCache.stats());
+    }
+
+    // GET /api/admin/cache/users (Admin Only)
+    // Hit/miss/eviction counters of the user lookup cache used by login
+    @GetMapping("/cache/users")
+    public ResponseEntity<Map<String, BoundedCache.Stats>> getUserCacheStats() {
+        return ResponseEntity.ok(userCache.stats());
+    }
+
+    // POST /api/admin/search/rebuild (Admin Only)
+    // Re-reads the products table into the search index, e.g. after a manual DB import
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<ApiResponse<String>> rebuildSearchIndex() {
+        productSearchIndex.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Search index rebuilt."));
+    }
+
+    // GET /api/admin/outbox (Admin Only)
+    // Order events not yet delivered to every listener; a growing number means a listener is failing or slow.
+    // deadLettered counts those out of attempts, which hold back later events of their order until dealt with
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Long>> getOutboxBacklog() {
+        return ResponseEntity.ok(Map.of("unpublished", outboxDispatcher.backlog(),
+                "deadLettered", outboxDispatcher.deadLettered()));
+    }
+
+    // POST /api/admin/orders/archive (Admin Only)
+    // Moves delivered/cancelled orders past the retention window to the archive tables now
+    @PostMapping("/orders/archive")
+    public ResponseEntity<ApiResponse<String>> archiveOrders() {
+        int moved = orderArchiveService.archive();
+        return ResponseEntity.ok(ApiResponse.success("Archived " + moved + " orders."));
+    }
+}
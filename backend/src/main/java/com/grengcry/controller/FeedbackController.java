@@ -26,8 +26,12 @@ public class FeedbackController {
     public ResponseEntity<PagedResponse<FeedbackResponse>> getFeedbacksForProduct(
             @PathVariable Long productId,
             @RequestParam(defaultValue = "1") Integer page,
-            @RequestParam(defaultValue = "10") Integer limit) {
-        PagedResponse<FeedbackResponse> response = feedbackService.getFeedbacksForProduct(productId, page, limit);
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        PagedResponse<FeedbackResponse> response = (cursor != null)
+                ? feedbackService.getFeedbacksForProductAfter(productId, cursor, limit, withTotal)
+                : feedbackService.getFeedbacksForProduct(productId, page, limit, withTotal);
         return ResponseEntity.ok(response);
     }
 
@@ -1,20 +1,36 @@
 package com.grengcry.controller;
 
+import com.grengcry.dto.request.BulkOrderStatusRequest;
 import com.grengcry.dto.request.CreateOrderRequest;
 import com.grengcry.dto.request.UpdateOrderStatusRequest;
 import com.grengcry.dto.response.ApiResponse;
+import com.grengcry.dto.response.BulkOrderStatusResponse;
+import com.grengcry.dto.response.OrderIntakeResponse;
 import com.grengcry.dto.response.OrderResponse;
 import com.grengcry.dto.response.PagedResponse;
+import com.grengcry.exception.BadRequestException;
 import com.grengcry.model.enums.OrderStatus;
 import com.grengcry.security.CustomUserDetails; // Make sure this import exists
+import com.grengcry.service.OrderExportService;
+import com.grengcry.service.OrderIdempotencyService;
+import com.grengcry.service.OrderIntakeService;
 import com.grengcry.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,17 +39,63 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
     // GET /api/orders (Admin Only)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<PagedResponse<OrderResponse>> getOrders(
             @RequestParam(required = false) OrderStatus status,
             @RequestParam(defaultValue = "1") Integer page,
-            @RequestParam(defaultValue = "10") Integer limit) {
-        PagedResponse<OrderResponse> response = orderService.getOrders(status, page, limit);
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        PagedResponse<OrderResponse> response = (cursor != null)
+                ? orderService.getOrdersAfter(status, cursor, limit, withTotal)
+                : orderService.getOrders(status, page, limit, withTotal);
         return ResponseEntity.ok(response);
     }
 
+    // GET /api/orders/export?format=csv&status=DELIVERED&from=2024-01-01&to=2024-01-31 (Admin Only)
+    // One line per order item, oldest first; format is csv or ndjson, from/to are inclusive days
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        OrderExportService.Format exportFormat;
+        if ("csv".equalsIgnoreCase(format)) {
+            exportFormat = OrderExportService.Format.CSV;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            exportFormat = OrderExportService.Format.NDJSON;
+        } else {
+            throw new BadRequestException("format must be csv or ndjson");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        String fileName = "orders" + (from != null ? "-" + from : "") + (to != null ? "-" + to : "")
+                + (exportFormat == OrderExportService.Format.CSV ? ".csv" : ".ndjson");
+
+        // Runs on an async thread after the headers are sent; the export opens its own read-only transaction
+        StreamingResponseBody body = out -> orderExportService.export(exportFormat, status, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == OrderExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
     // GET /api/orders/1 (Admin or the user who owns the order)
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @securityService.isOrderOwner(authentication, #id)")
@@ -43,16 +105,56 @@ public class OrderController {
     }
 
     // POST /api/orders (Authenticated Users Only)
+    // Optional header Idempotency-Key: <client-generated unique value>
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<OrderResponse> createOrder(
             @AuthenticationPrincipal CustomUserDetails currentUser, // Gets the logged-in user
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CreateOrderRequest request) {
 
+        if (idempotencyKey != null) {
+            // Retries with the same key get the original order back instead of a new one
+            OrderIdempotencyService.Result result =
+                    orderIdempotencyService.createOrder(currentUser.getId(), idempotencyKey, request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                    .body(result.order());
+        }
         OrderResponse response = orderService.createOrder(currentUser.getId(), request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // POST /api/orders/intake (Authenticated Users Only, when orders.intake.async.enabled=true)
+    // Queues the order and answers 202 right away; poll the Location for the outcome
+    @PostMapping("/intake")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<OrderIntakeResponse> submitOrder(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @Valid @RequestBody CreateOrderRequest request) {
+        OrderIntakeResponse response = orderIntakeService.submit(currentUser.getId(), request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/intake/" + response.getTrackingId()))
+                .body(response);
+    }
+
+    // GET /api/orders/intake/5f0c... (the user who queued it, or Admin)
+    // Once the order is written this answers 303 See Other pointing at GET /api/orders/{id}
+    @GetMapping("/intake/{trackingId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<OrderIntakeResponse> getIntakeStatus(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @PathVariable String trackingId) {
+        boolean admin = currentUser.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        OrderIntakeResponse response = orderIntakeService.getStatus(trackingId, currentUser.getId(), admin);
+        if (response.getOrderId() != null) {
+            return ResponseEntity.status(HttpStatus.SEE_OTHER)
+                    .location(URI.create("/api/orders/" + response.getOrderId()))
+                    .body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
     // PUT /api/orders/1/status (Admin Only)
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
@@ -62,4 +164,14 @@ public class OrderController {
         OrderResponse response = orderService.updateOrderStatus(id, request);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // PUT /api/orders/status (Admin Only)
+    // Body {"orderIds": [1, 2, 3], "status": "SHIPPED"}; answers with one result per id
+    @PutMapping("/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkOrderStatusResponse> updateOrderStatuses(
+            @Valid @RequestBody BulkOrderStatusRequest request) {
+        BulkOrderStatusResponse response = orderService.updateOrderStatuses(request);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -2,17 +2,29 @@ package com.grengcry.controller;
 
 import com.grengcry.dto.request.CreateProductRequest;
 import com.grengcry.dto.response.ApiResponse;
+import com.grengcry.dto.response.ImportSummaryResponse;
 import com.grengcry.dto.response.PagedResponse;
 import com.grengcry.dto.response.ProductResponse;
+import com.grengcry.service.ProductImportService;
 import com.grengcry.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
@@ -20,20 +32,66 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Value("${catalog.public.max-age-seconds:60}")
+    private long publicMaxAgeSeconds;
+
     // GET /api/products?page=1&limit=10
+    // GET /api/products?cursor=&limit=10&withTotal=false (keyset mode, pass nextCursor back as cursor)
     @GetMapping
     public ResponseEntity<PagedResponse<ProductResponse>> getProducts(
             @RequestParam(defaultValue = "1") Integer page,
-            @RequestParam(defaultValue = "10") Integer limit) {
-        PagedResponse<ProductResponse> response = productService.getProducts(page, limit);
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            // 304 and ETag are already set on the response; nothing is loaded or serialized
+            return null;
+        }
+        PagedResponse<ProductResponse> response = (cursor != null)
+                ? productService.getProductsAfter(cursor, limit, withTotal)
+                : productService.getProducts(page, limit, withTotal);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).eTag(etag).body(response);
+    }
+
+    // GET /api/products/search?q=wireless headphones&category=Audio&page=1&limit=10
+    @GetMapping("/search")
+    public ResponseEntity<PagedResponse<ProductResponse>> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "10") Integer limit,
+            WebRequest webRequest) {
+        String etag = catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        PagedResponse<ProductResponse> response = productService.searchProducts(query, category, page, limit);
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).eTag(etag).body(response);
     }
 
     // GET /api/products/1
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        // Only revalidation requests pay for the freshness probe
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            LocalDateTime lastModified = productService.getProductLastModified(id);
+            if (lastModified != null
+                    && webRequest.checkNotModified(productEtag(id, lastModified), toEpochMilli(lastModified))) {
+                return null;
+            }
+        }
         ProductResponse product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(catalogCacheControl());
+        if (product.getUpdatedAt() != null) {
+            builder.eTag(productEtag(id, product.getUpdatedAt())).lastModified(toEpochMilli(product.getUpdatedAt()));
+        }
+        return builder.body(product);
     }
 
     // POST /api/products (Admin Only)
@@ -44,6 +102,26 @@ public class ProductController {
         return new ResponseEntity<>(newProduct, HttpStatus.CREATED);
     }
 
+    // POST /api/products/import?batchSize=500 (Admin Only)
+    // Body: text/csv with a header row, a JSON array (application/json) or one object per line (application/x-ndjson).
+    // Rows with an id update that product, rows without one create a new product.
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportSummaryResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(required = false) Integer batchSize,
+            InputStream body) {
+        ProductImportService.Format format;
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            format = ProductImportService.Format.NDJSON;
+        } else if (contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            format = ProductImportService.Format.JSON;
+        } else {
+            format = ProductImportService.Format.CSV;
+        }
+        return ResponseEntity.ok(productImportService.importProducts(body, format, batchSize));
+    }
+
     // PUT /api/products/1 (Admin Only)
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -67,4 +145,21 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok(ApiResponse.success("Product deleted successfully."));
     }
-}
\ No newline at end of file
+
+    // Listing ETags come from the catalog version, read before loading so the tag is never newer than the data
+    private String catalogEtag() {
+        return "\"catalog-" + productService.getCatalogVersion() + "\"";
+    }
+
+    private static String productEtag(Long id, LocalDateTime updatedAt) {
+        return "\"product-" + id + "-" + toEpochMilli(updatedAt) + "\"";
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(publicMaxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+    }
+}
@@ -0,0 +1,145 @@
+package com.grengcry.controller;
+
+import com.grengcry.util.OpenFileCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves uploaded product images. Large bodies are handed to Tomcat's sendfile
+ * support so the kernel copies the file straight to the socket and the request
+ * thread returns immediately; everything else is streamed with
+ * {@link FileChannel#transferTo} from a cached open channel. Single byte ranges
+ * are honoured, and since uploads are content-unique UUID files they are
+ * cacheable forever.
+ */
+@RestController
+public class UploadController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+
+    @Autowired
+    private OpenFileCache uploadFileCache;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    // Below this size the sendfile hand-off costs more than copying the bytes ourselves
+    @Value("${file.serving.sendfile-threshold-bytes:49152}")
+    private long sendfileThreshold;
+
+    // GET /uploads/3f0c...e1.jpg
+    @GetMapping("/uploads/{fileName:.+}")
+    public void serve(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path file = resolve(fileName);
+        if (file == null || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        try (OpenFileCache.Handle handle = uploadFileCache.open(file)) {
+            long size = handle.size();
+            String etag = "\"" + Long.toHexString(handle.lastModified()) + "-" + Long.toHexString(size) + "\"";
+
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (new ServletWebRequest(request, response).checkNotModified(etag, handle.lastModified())) {
+                return;
+            }
+            response.setContentType(MediaTypeFactory.getMediaType(fileName)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+            long start = 0;
+            long length = size;
+            String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(rangeHeader);
+                    if (ranges.size() == 1) {
+                        start = ranges.get(0).getRangeStart(size);
+                        length = ranges.get(0).getRangeEnd(size) - start + 1;
+                    }
+                } catch (IllegalArgumentException ex) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                // Multiple ranges are legal to ignore; images are fetched whole or resumed from one offset
+                if (ranges.size() == 1) {
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE,
+                            "bytes " + start + "-" + (start + length - 1) + "/" + size);
+                }
+            }
+            response.setContentLengthLong(length);
+
+            if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+                return;
+            }
+            if (length >= sendfileThreshold && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + length);
+                return;
+            }
+            transfer(handle.channel(), start, length, response);
+        } catch (NoSuchFileException ex) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private static void transfer(FileChannel channel, long start, long length, HttpServletResponse response)
+            throws IOException {
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long written = channel.transferTo(position, remaining, target);
+            if (written <= 0) {
+                break; // file shrank underneath us; the client sees a short body
+            }
+            position += written;
+            remaining -= written;
+        }
+    }
+
+    // Only plain file names directly inside the upload directory are served
+    private Path resolve(String fileName) {
+        if (fileName.contains("/") || fileName.contains("\\") || fileName.startsWith(".")) {
+            return null;
+        }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = root.resolve(fileName).normalize();
+        return file.getParent().equals(root) ? file : null;
+    }
+}
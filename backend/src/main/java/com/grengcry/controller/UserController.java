@@ -2,14 +2,19 @@ package com.grengcry.controller;
 
 import com.grengcry.dto.request.UpdateUserRequest;
 import com.grengcry.dto.response.ApiResponse;
+import com.grengcry.dto.response.OrderSummaryResponse;
 import com.grengcry.dto.response.PagedResponse;
 import com.grengcry.dto.response.UserResponse;
+import com.grengcry.model.enums.OrderStatus;
 import com.grengcry.model.enums.Role;
+import com.grengcry.security.CustomUserDetails;
+import com.grengcry.service.OrderService;
 import com.grengcry.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -19,6 +24,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private OrderService orderService;
+
     // GET http://localhost:8081/api/users?page=1&limit=10
     // Secured: Only Admins can view the full list of users.
     @GetMapping
@@ -26,11 +34,28 @@ public class UserController {
     public ResponseEntity<PagedResponse<UserResponse>> getUsers(
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer limit,
-            @RequestParam(required = false) Role role) {
-        PagedResponse<UserResponse> response = userService.getUsers(page, limit, role);
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        PagedResponse<UserResponse> response = (cursor != null)
+                ? userService.getUsersAfter(cursor, limit, role, withTotal)
+                : userService.getUsers(page, limit, role, withTotal);
         return ResponseEntity.ok(response);
     }
 
+    // GET http://localhost:8081/api/users/me/orders?limit=10&status=DELIVERED&cursor=... (limit 1 to 100)
+    // Secured: The signed-in user's own order history, newest first; follow nextCursor for older orders.
+    @GetMapping("/me/orders")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PagedResponse<OrderSummaryResponse>> getMyOrders(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(orderService.getUserOrders(currentUser.getId(), status, cursor, limit, withTotal));
+    }
+
     // GET http://localhost:8081/api/users/1
     // Secured: A user can get their own info, or an admin can get anyone's info.
     @GetMapping("/{id}")
@@ -0,0 +1,17 @@
+package com.grengcry.dto.request;
+
+import com.grengcry.model.enums.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkOrderStatusRequest {
+    @NotEmpty(message = "Order IDs cannot be empty")
+    private List<@NotNull Long> orderIds;
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+}
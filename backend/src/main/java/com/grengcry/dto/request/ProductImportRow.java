@@ -0,0 +1,15 @@
+package com.grengcry.dto.request;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+// One record of a bulk import; rows with an id update that product, rows without one are inserted
+@Data
+public class ProductImportRow {
+    private Long id;
+    private String name;
+    private String description;
+    private String category;
+    private BigDecimal price;
+    private Integer stock;
+}
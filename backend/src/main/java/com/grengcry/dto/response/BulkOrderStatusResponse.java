@@ -0,0 +1,37 @@
+package com.grengcry.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.grengcry.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkOrderStatusResponse {
+    private OrderStatus status;
+    private int updated;
+    private int rejected;
+    private List<Result> results = new ArrayList<>();
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,      // already in the requested status
+        NOT_FOUND,
+        ILLEGAL_TRANSITION
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private Long id;
+        private Outcome outcome;
+        // Status the order was in before the request; null when it does not exist
+        private OrderStatus from;
+    }
+}
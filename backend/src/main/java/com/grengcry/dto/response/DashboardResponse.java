@@ -0,0 +1,51 @@
+package com.grengcry.dto.response;
+
+import com.grengcry.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class DashboardResponse {
+    private long totalOrders;
+    private Map<OrderStatus, Long> ordersByStatus;
+
+    // Newest day first; days without orders are included with zeros
+    private List<DayStats> days = new ArrayList<>();
+
+    // Best sellers by units, cancelled orders excluded
+    private List<ProductStats> topProducts = new ArrayList<>();
+
+    // When the figures were last recomputed from the orders table and last changed by an event
+    private LocalDateTime rebuiltAt;
+    private LocalDateTime updatedAt;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DayStats {
+        private LocalDate date;
+        // All orders placed that day, including ones cancelled later
+        private long orders;
+        // Totals of that day's orders that were not cancelled
+        private BigDecimal revenue;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ProductStats {
+        private Long productId;
+        private String name;
+        private long unitsSold;
+        private BigDecimal revenue;
+    }
+}
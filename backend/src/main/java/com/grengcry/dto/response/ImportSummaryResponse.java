@@ -0,0 +1,29 @@
+package com.grengcry.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportSummaryResponse {
+    private long totalRows;
+    private long created;
+    private long updated;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    // true when more rows failed than are listed in errors
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long row;
+        private String message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.grengcry.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// State of an order accepted through the asynchronous intake queue
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderIntakeResponse {
+    private String trackingId;
+
+    // QUEUED, CREATED or REJECTED
+    private String status;
+
+    // Set once CREATED; the order is then served by GET /api/orders/{id}
+    private Long orderId;
+
+    // Reason when REJECTED
+    private String message;
+}
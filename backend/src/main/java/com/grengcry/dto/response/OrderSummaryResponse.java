@@ -0,0 +1,44 @@
+package com.grengcry.dto.response;
+
+import com.grengcry.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Order history row: order columns plus one line per item, without the full product or user
+@Data
+@NoArgsConstructor
+public class OrderSummaryResponse {
+    private Long id;
+    private BigDecimal total;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<Line> items = new ArrayList<>();
+
+    // Used by the JPQL constructor expression in OrderRepository
+    public OrderSummaryResponse(Long id, BigDecimal total, OrderStatus status,
+                                LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.total = total;
+        this.status = status.name();
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String productName;
+        private String imageThumb;
+        private Integer quantity;
+        private BigDecimal price;
+    }
+}
@@ -1,6 +1,6 @@
 package com.grengcry.dto.response;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -8,10 +8,41 @@ import java.util.List;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PagedResponse<T> {
     private List<T> data;
-    private long total;
-    private int page;
-    private int pages;
+
+    // Null when the caller asked to skip the count query
+    private Long total;
+    private Integer page;
+    private Integer pages;
+
+    // Keyset mode: pass nextCursor back as ?cursor= to fetch the following page
+    private String nextCursor;
+    private Boolean hasMore;
+
+    public PagedResponse(List<T> data, long total, int page, int pages) {
+        this.data = data;
+        this.total = total;
+        this.page = page;
+        this.pages = pages;
+    }
+
+    // Offset page without a total count (backed by a Slice)
+    public static <T> PagedResponse<T> ofSlice(List<T> data, int page, boolean hasMore) {
+        PagedResponse<T> response = new PagedResponse<>();
+        response.setData(data);
+        response.setPage(page);
+        response.setHasMore(hasMore);
+        return response;
+    }
+
+    public static <T> PagedResponse<T> ofCursor(List<T> data, String nextCursor, Long total) {
+        PagedResponse<T> response = new PagedResponse<>();
+        response.setData(data);
+        response.setTotal(total);
+        response.setNextCursor(nextCursor);
+        response.setHasMore(nextCursor != null);
+        return response;
+    }
 }
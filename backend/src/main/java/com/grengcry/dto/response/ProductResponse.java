@@ -18,6 +18,15 @@ public class ProductResponse {
     private BigDecimal price;
     private Integer stock;
     private String image;
+    private String imageThumb;
+    private String imageMedium;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // Listing projection (see ProductRepository): everything except the long description
+    public ProductResponse(Long id, String name, String category, BigDecimal price, Integer stock,
+                           String image, String imageThumb, String imageMedium,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, null, category, price, stock, image, imageThumb, imageMedium, createdAt, updatedAt);
+    }
 }
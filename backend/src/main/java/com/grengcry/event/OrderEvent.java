@@ -0,0 +1,34 @@
+package com.grengcry.event;
+
+import com.grengcry.model.enums.OrderEventType;
+import com.grengcry.model.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Something that happened to an order, as delivered to {@link OrderEventListener}s.
+ * {@code eventId} is the outbox row id: stable across redeliveries and increasing
+ * in commit order for events of one order. {@code items} is set for
+ * ORDER_CREATED and for changes to CANCELLED; {@code previousStatus} only for
+ * ORDER_STATUS_CHANGED.
+ */
+public record OrderEvent(Long eventId,
+                         OrderEventType type,
+                         Long orderId,
+                         Long userId,
+                         OrderStatus status,
+                         OrderStatus previousStatus,
+                         BigDecimal total,
+                         LocalDateTime orderCreatedAt,
+                         List<Line> items,
+                         LocalDateTime occurredAt) {
+
+    public record Line(Long productId, Integer quantity, BigDecimal price) {
+    }
+
+    OrderEvent withEventId(Long id) {
+        return new OrderEvent(id, type, orderId, userId, status, previousStatus, total, orderCreatedAt, items, occurredAt);
+    }
+}
@@ -0,0 +1,19 @@
+package com.grengcry.event;
+
+import java.util.List;
+
+/**
+ * Reacts to order events after the order transaction has committed. Any bean
+ * implementing this is picked up by {@link OutboxDispatcher}.
+ *
+ * Delivery is at least once and in batches: if any listener throws, the events
+ * of the batch are offered again one at a time, also to the listeners that had
+ * handled them, so implementations must tolerate seeing an
+ * {@link OrderEvent#eventId()} twice. Events of one order arrive in order.
+ * Listeners run on the dispatcher thread; a slow one delays delivery of later
+ * events rather than queueing them in memory.
+ */
+public interface OrderEventListener {
+
+    void onOrderEvents(List<OrderEvent> events);
+}
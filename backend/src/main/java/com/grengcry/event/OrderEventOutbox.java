@@ -0,0 +1,77 @@
+package com.grengcry.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grengcry.model.entity.Order;
+import com.grengcry.model.entity.OutboxEvent;
+import com.grengcry.model.enums.OrderEventType;
+import com.grengcry.model.enums.OrderStatus;
+import com.grengcry.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records order events in the outbox table. Must be called inside the
+ * transaction that changes the order, so the event exists if and only if the
+ * change committed; nothing is delivered from here.
+ */
+@Component
+public class OrderEventOutbox {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Collection<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> rows = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            List<OrderEvent.Line> items = order.getItems().stream()
+                    .map(i -> new OrderEvent.Line(i.getProduct().getId(), i.getQuantity(), i.getPrice()))
+                    .collect(Collectors.toList());
+            rows.add(row(new OrderEvent(null, OrderEventType.ORDER_CREATED, order.getId(), order.getUser().getId(),
+                    order.getStatus(), null, order.getTotal(), order.getCreatedAt(), items, now)));
+        }
+        outboxEventRepository.append(rows);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Collection<StatusChange> changes) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> rows = new ArrayList<>(changes.size());
+        for (StatusChange change : changes) {
+            rows.add(row(new OrderEvent(null, OrderEventType.ORDER_STATUS_CHANGED, change.orderId(), change.userId(),
+                    change.status(), change.previousStatus(), change.total(), change.orderCreatedAt(), change.items(), now)));
+        }
+        outboxEventRepository.append(rows);
+    }
+
+    private OutboxEvent row(OrderEvent event) {
+        OutboxEvent row = new OutboxEvent();
+        row.setEventType(event.type());
+        row.setAggregateId(event.orderId());
+        try {
+            row.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize order event", ex);
+        }
+        return row;
+    }
+
+    // items only for cancellations, so listeners can reverse what the order had counted
+    public record StatusChange(Long orderId, Long userId, OrderStatus previousStatus, OrderStatus status,
+                               BigDecimal total, LocalDateTime orderCreatedAt, List<OrderEvent.Line> items) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.grengcry.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grengcry.model.entity.OutboxEvent;
+import com.grengcry.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Delivers outbox rows to the {@link OrderEventListener} beans. Each run pulls
+ * due events oldest first in batches, hands every batch to all listeners and
+ * marks it published only when all of them returned. When a batch fails its
+ * events are offered again one at a time, so only the events that fail on their
+ * own use up an attempt. Those are retried with exponential backoff until
+ * {@code outbox.max-attempts}, after which they are dead-lettered: left in the
+ * table unpublished for inspection. Later events of the same order wait behind
+ * a failed one, so listeners never see an order's events out of order.
+ *
+ * The table is the buffer: writers never wait for listeners, and a run stops
+ * after {@code outbox.max-batches-per-run} batches so a backlog is worked off
+ * at a bounded rate instead of being loaded into memory at once.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private List<OrderEventListener> listeners = List.of();
+
+    @Value("${outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMillis;
+
+    @Value("${outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${outbox.dispatch-interval-ms:500}")
+    public void dispatch() {
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            List<OutboxEvent> due = outboxEventRepository.findDue(maxAttempts, LocalDateTime.now(),
+                    PageRequest.of(0, batchSize));
+            if (due.isEmpty() || !deliver(due) || due.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    public long backlog() {
+        return outboxEventRepository.countUnpublished();
+    }
+
+    public long deadLettered() {
+        return outboxEventRepository.countDeadLettered(maxAttempts);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+    public void purgePublished() {
+        int purged = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Purged {} published outbox events", purged);
+        }
+    }
+
+    private boolean deliver(List<OutboxEvent> rows) {
+        List<OutboxEvent> readable = new ArrayList<>(rows.size());
+        List<OrderEvent> events = new ArrayList<>(rows.size());
+        for (OutboxEvent row : rows) {
+            try {
+                events.add(objectMapper.readValue(row.getPayload(), OrderEvent.class).withEventId(row.getId()));
+                readable.add(row);
+            } catch (JsonProcessingException ex) {
+                // Retrying cannot fix a payload we cannot read; use up its attempts right away
+                log.error("Outbox event {} has an unreadable payload", row.getId(), ex);
+                outboxEventRepository.markFailed(List.of(row.getId()), maxAttempts, null, truncate(ex.getMessage()));
+            }
+        }
+        if (events.isEmpty()) {
+            return true;
+        }
+
+        try {
+            publish(events);
+        } catch (RuntimeException ex) {
+            log.warn("Delivery of {} order events failed, retrying them one at a time", events.size(), ex);
+            return deliverEach(readable, events);
+        }
+        outboxEventRepository.markPublished(readable.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+        return true;
+    }
+
+    // Pins the failure on the events that cause it; the others of the batch are published
+    private boolean deliverEach(List<OutboxEvent> rows, List<OrderEvent> events) {
+        Set<Long> heldOrders = new HashSet<>();
+        List<Long> published = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            OutboxEvent row = rows.get(i);
+            if (heldOrders.contains(row.getAggregateId())) {
+                // An earlier event of this order failed; this one waits for it
+                continue;
+            }
+            try {
+                publish(List.of(events.get(i)));
+                published.add(row.getId());
+            } catch (RuntimeException ex) {
+                heldOrders.add(row.getAggregateId());
+                markFailed(row, ex);
+            }
+        }
+        if (!published.isEmpty()) {
+            outboxEventRepository.markPublished(published, LocalDateTime.now());
+        }
+        return heldOrders.isEmpty();
+    }
+
+    private void markFailed(OutboxEvent row, RuntimeException ex) {
+        int attempt = row.getAttempts() + 1;
+        if (attempt >= maxAttempts) {
+            outboxEventRepository.markFailed(List.of(row.getId()), 1, null, truncate(ex.toString()));
+            log.error("Outbox event {} of order {} dead-lettered after {} attempts; later events of the order are held",
+                    row.getId(), row.getAggregateId(), attempt, ex);
+            return;
+        }
+        long delay = retryBackoffMillis << Math.min(attempt - 1, 16);
+        outboxEventRepository.markFailed(List.of(row.getId()), 1, LocalDateTime.now().plusNanos(delay * 1_000_000),
+                truncate(ex.toString()));
+        log.warn("Delivery of outbox event {} failed (attempt {}), retrying in {} ms", row.getId(), attempt, delay, ex);
+    }
+
+    private void publish(List<OrderEvent> events) {
+        for (OrderEventListener listener : listeners) {
+            listener.onOrderEvents(events);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -0,0 +1,8 @@
+package com.grengcry.exception;
+
+public class ConflictException extends ApplicationException {
+	private static final long serialVersionUID = 1L;
+    public ConflictException(String message) {
+        super(message, "CONFLICT");
+    }
+}
@@ -0,0 +1,15 @@
+package com.grengcry.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ServiceUnavailableException extends ApplicationException {
+	private static final long serialVersionUID = 1L;
+    // Seconds the client should wait before retrying, sent as Retry-After
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message, "SERVICE_UNAVAILABLE");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
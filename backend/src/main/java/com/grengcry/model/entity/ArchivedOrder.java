@@ -0,0 +1,41 @@
+package com.grengcry.model.entity;
+
+import com.grengcry.model.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Order moved out of the live orders table by OrderArchiveService; keeps its original id
+@Entity
+@Table(name = "orders_archive", indexes = {
+    @Index(name = "idx_archive_user_created", columnList = "user_id, createdAt"),
+    @Index(name = "idx_archive_created", columnList = "createdAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    // Plain ids: archived rows must not stop users or products from being deleted
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal total;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime archivedAt;
+}
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "feedback", indexes = {
     @Index(name = "idx_rating", columnList = "rating"),
-    @Index(name = "idx_user_id", columnList = "user_id")
+    @Index(name = "idx_user_id", columnList = "user_id"),
+    @Index(name = "idx_product_created_id", columnList = "product_id, createdAt, id")
 })
 @Data
 @NoArgsConstructor
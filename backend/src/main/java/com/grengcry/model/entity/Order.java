@@ -16,8 +16,12 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders", indexes = {
-    @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_status", columnList = "status")
+    // Per-user history in keyset order; also serves the user_id foreign key
+    @Index(name = "idx_user_created_id", columnList = "user_id, createdAt, id"),
+    @Index(name = "idx_status", columnList = "status"),
+    @Index(name = "idx_created_id", columnList = "createdAt, id"),
+    @Index(name = "idx_status_created_id", columnList = "status, createdAt, id"),
+    @Index(name = "idx_stock_pending", columnList = "stockPending")
 })
 @Data
 @NoArgsConstructor
@@ -41,6 +45,9 @@ public class Order {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status = OrderStatus.PENDING;
+
+    // Stock was taken from the in-memory reservation counters and not yet written to products.stock
+    private Boolean stockPending = false;
     
     @CreationTimestamp
     @Column(updatable = false)
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "products", indexes = {
     @Index(name = "idx_category", columnList = "category"),
-    @Index(name = "idx_name", columnList = "name")
+    @Index(name = "idx_name", columnList = "name"),
+    @Index(name = "idx_created_id", columnList = "createdAt, id")
 })
 @Data
 @NoArgsConstructor
@@ -43,6 +44,11 @@ public class Product {
     private Integer stock;
     
     private String image;
+
+    // Resized variants generated in the background after an upload; null until ready
+    private String imageThumb;
+
+    private String imageMedium;
     
     @CreationTimestamp
     @Column(updatable = false)
@@ -11,7 +11,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_created_id", columnList = "createdAt, id"),
+    @Index(name = "idx_role_created_id", columnList = "role, createdAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
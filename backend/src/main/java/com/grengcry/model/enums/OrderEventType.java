@@ -0,0 +1,6 @@
+package com.grengcry.model.enums;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED
+}
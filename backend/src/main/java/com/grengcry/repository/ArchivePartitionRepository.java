@@ -0,0 +1,20 @@
+package com.grengcry.repository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+// Custom fragment of OrderArchiveRepository: monthly RANGE partitions of the archive tables (see schema.sql)
+public interface ArchivePartitionRepository {
+
+    String FUTURE_PARTITION = "p_future";
+
+    /** Partition names of the table in order; empty when the table is not partitioned. */
+    List<String> findPartitionNames(String table);
+
+    /** Splits p_future into one partition per month, in ascending order, followed by a new p_future. */
+    void splitFuturePartition(String table, List<YearMonth> months);
+
+    static String partitionName(YearMonth month) {
+        return String.format("p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+}
@@ -3,14 +3,31 @@ package com.grengcry.repository;
 import com.grengcry.model.entity.Feedback;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 	Page<Feedback> findByProductId(Long productId, Pageable pageable);
     Page<Feedback> findByRating(Integer rating, Pageable pageable);
+    long countByProductId(Long productId);
+
+    // Offset page without the COUNT(*) query
+    Slice<Feedback> findSliceByProductId(Long productId, Pageable pageable);
+
+    // Keyset pagination, newest first
+    List<Feedback> findByProductIdOrderByCreatedAtDescIdDesc(Long productId, Pageable pageable);
+
+    @Query("SELECT f FROM Feedback f WHERE f.product.id = :productId AND (f.createdAt < :createdAt OR " +
+           "(f.createdAt = :createdAt AND f.id < :id)) ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findPageAfter(@Param("productId") Long productId, @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id, Pageable pageable);
     
     @Query("SELECT AVG(f.rating) FROM Feedback f")
     Double getAverageRating();
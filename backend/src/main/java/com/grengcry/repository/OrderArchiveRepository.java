@@ -0,0 +1,97 @@
+package com.grengcry.repository;
+
+import com.grengcry.dto.response.OrderSummaryResponse;
+import com.grengcry.model.entity.ArchivedOrder;
+import com.grengcry.model.entity.ArchivedOrderItem;
+import com.grengcry.model.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Archive tables plus the set-based statements that move orders into them.
+ * The moves are INSERT ... SELECT and DELETE over id lists, so a batch of
+ * orders is archived without loading a single entity.
+ */
+@Repository
+public interface OrderArchiveRepository extends JpaRepository<ArchivedOrder, Long>, ArchivePartitionRepository {
+
+    // Final-state orders created before the cutoff, oldest ids first. Rows from before the
+    // stock_pending column was added hold NULL there and are treated as written back.
+    @Query("SELECT o.id FROM Order o WHERE o.createdAt < :cutoff AND o.status IN :statuses " +
+           "AND (o.stockPending IS NULL OR o.stockPending = false) ORDER BY o.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff,
+                                 @Param("statuses") Collection<OrderStatus> statuses, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, user_id, total, status, created_at, updated_at, archived_at) " +
+                   "SELECT id, user_id, total, status, created_at, updated_at, :now FROM orders WHERE id IN (:ids)",
+           nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (id, order_id, product_id, quantity, price, created_at) " +
+                   "SELECT i.id, i.order_id, i.product_id, i.quantity, i.price, o.created_at " +
+                   "FROM order_items i JOIN orders o ON o.id = i.order_id WHERE i.order_id IN (:ids)",
+           nativeQuery = true)
+    int copyItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteLiveItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int deleteLiveOrders(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i FROM ArchivedOrderItem i WHERE i.orderId = :orderId ORDER BY i.id")
+    List<ArchivedOrderItem> findItems(@Param("orderId") Long orderId);
+
+    // Dashboard rebuild: archived orders per status
+    @Query("SELECT a.status, COUNT(a) FROM ArchivedOrder a GROUP BY a.status")
+    List<Object[]> countGroupByStatus();
+
+    // Dashboard rebuild: product id, units sold, revenue, over archived orders that were not cancelled
+    @Query("SELECT i.productId, SUM(i.quantity), SUM(i.quantity * i.price) FROM ArchivedOrderItem i, ArchivedOrder a " +
+           "WHERE a.id = i.orderId AND a.status <> :cancelled GROUP BY i.productId")
+    List<Object[]> sumSalesByProduct(@Param("cancelled") OrderStatus cancelled);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // Archived part of a user's order history, same shape and order as OrderRepository.findHistory*
+    String USER_HISTORY = "SELECT new com.grengcry.dto.response.OrderSummaryResponse(a.id, a.total, a.status, " +
+                          "a.createdAt, a.updatedAt) FROM ArchivedOrder a WHERE a.userId = :userId ";
+    String USER_HISTORY_AFTER = "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) ";
+    String NEWEST_FIRST = "ORDER BY a.createdAt DESC, a.id DESC";
+
+    @Query(USER_HISTORY + NEWEST_FIRST)
+    List<OrderSummaryResponse> findHistoryFirst(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(USER_HISTORY + USER_HISTORY_AFTER + NEWEST_FIRST)
+    List<OrderSummaryResponse> findHistoryAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id, Pageable pageable);
+
+    @Query(USER_HISTORY + "AND a.status = :status " + NEWEST_FIRST)
+    List<OrderSummaryResponse> findHistoryFirstByStatus(@Param("userId") Long userId, @Param("status") OrderStatus status,
+                                                        Pageable pageable);
+
+    @Query(USER_HISTORY + "AND a.status = :status " + USER_HISTORY_AFTER + NEWEST_FIRST)
+    List<OrderSummaryResponse> findHistoryAfterByStatus(@Param("userId") Long userId, @Param("status") OrderStatus status,
+                                                        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                        Pageable pageable);
+
+    // Same columns as OrderRepository.findHistoryLines; products deleted since come back without name and thumbnail
+    @Query("SELECT i.orderId, i.productId, p.name, p.imageThumb, i.quantity, i.price FROM ArchivedOrderItem i " +
+           "LEFT JOIN Product p ON p.id = i.productId WHERE i.orderId IN :ids ORDER BY i.id")
+    List<Object[]> findHistoryLines(@Param("ids") Collection<Long> ids);
+
+    long countByUserId(Long userId);
+    long countByUserIdAndStatus(Long userId, OrderStatus status);
+}
@@ -1,13 +1,24 @@
 package com.grengcry.repository;
 
+import com.grengcry.dto.response.OrderSummaryResponse;
 import com.grengcry.model.entity.Order;
 import com.grengcry.model.entity.User;
 import com.grengcry.model.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -15,6 +26,107 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
     Page<Order> findByUserAndStatus(User user, OrderStatus status, Pageable pageable);
     
+    // Everything OrderResponse touches (user, items, item products) in one joined select
+    @EntityGraph(attributePaths = {"user", "items", "items.product"})
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findWithDetailsById(@Param("id") Long id);
+
+    // Second step of a listing: the page query picks the ids, this loads them fully.
+    // Kept apart because LIMIT cannot be applied to a collection fetch join.
+    @EntityGraph(attributePaths = {"user", "items", "items.product"})
+    @Query("SELECT DISTINCT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     long countByStatus(OrderStatus status);
+
+    // Orders whose stock is still held in memory by the reservation engine
+    @Query("SELECT o.id FROM Order o WHERE o.stockPending = true")
+    List<Long> findStockPendingIds();
+
+    @Query("SELECT i.product.id, SUM(i.quantity) FROM OrderItem i WHERE i.order.id IN :ids GROUP BY i.product.id")
+    List<Object[]> sumQuantitiesByProduct(@Param("ids") Collection<Long> ids);
+
+    // order id, product id, quantity, price of every line of the given orders
+    @Query("SELECT i.order.id, i.product.id, i.quantity, i.price FROM OrderItem i WHERE i.order.id IN :ids")
+    List<Object[]> findItemLinesByOrderIdIn(@Param("ids") Collection<Long> ids);
+
+    // Dashboard rebuild: orders per status
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupByStatus();
+
+    // Dashboard rebuild: day, orders created that day, revenue of the ones not cancelled
+    @Query("SELECT CAST(o.createdAt AS LocalDate), COUNT(o), " +
+           "SUM(CASE WHEN o.status <> :cancelled THEN o.total ELSE 0 END) " +
+           "FROM Order o WHERE o.createdAt >= :since GROUP BY CAST(o.createdAt AS LocalDate)")
+    List<Object[]> sumByDaySince(@Param("since") LocalDateTime since, @Param("cancelled") OrderStatus cancelled);
+
+    // Dashboard rebuild: product id, units sold, revenue, over orders that were not cancelled
+    @Query("SELECT i.product.id, SUM(i.quantity), SUM(i.quantity * i.price) FROM OrderItem i " +
+           "WHERE i.order.status <> :cancelled GROUP BY i.product.id")
+    List<Object[]> sumSalesByProduct(@Param("cancelled") OrderStatus cancelled);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.stockPending = false WHERE o.id IN :ids")
+    int clearStockPending(@Param("ids") Collection<Long> ids);
+
+    // id, status, user_id, total, created_at of each order, row-locked until the transaction ends.
+    // Native because the lock has to cover a scalar projection; id order avoids deadlocks.
+    @Query(value = "SELECT id, status, user_id, total, created_at FROM orders WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> lockStatusByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now WHERE o.id IN :ids AND o.status IN :from")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from,
+                     @Param("to") OrderStatus to, @Param("now") LocalDateTime now);
+
+    // Order history of one user, newest first, read along idx_user_created_id (user_id, created_at, id)
+    String USER_HISTORY = "SELECT new com.grengcry.dto.response.OrderSummaryResponse(o.id, o.total, o.status, " +
+                          "o.createdAt, o.updatedAt) FROM Order o WHERE o.user.id = :userId ";
+    String USER_HISTORY_AFTER = "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) ";
+    String NEWEST_FIRST = "ORDER BY o.createdAt DESC, o.id DESC";
+
+    @Query(USER_HISTORY + NEWEST_FIRST)
+    List<OrderSummaryResponse> findHistoryFirst(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(USER_HISTORY + USER_HISTORY_AFTER + NEWEST_FIRST)
+    List<OrderSummaryResponse> findHistoryAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id, Pageable pageable);
+
+    @Query(USER_HISTORY + "AND o.status = :status " + NEWEST_FIRST)
+    List<OrderSummaryResponse> findHistoryFirstByStatus(@Param("userId") Long userId, @Param("status") OrderStatus status,
+                                                        Pageable pageable);
+
+    @Query(USER_HISTORY + "AND o.status = :status " + USER_HISTORY_AFTER + NEWEST_FIRST)
+    List<OrderSummaryResponse> findHistoryAfterByStatus(@Param("userId") Long userId, @Param("status") OrderStatus status,
+                                                        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                        Pageable pageable);
+
+    // order id, product id, product name, thumbnail, quantity, price for a page of history rows
+    @Query("SELECT i.order.id, p.id, p.name, p.imageThumb, i.quantity, i.price FROM OrderItem i JOIN i.product p " +
+           "WHERE i.order.id IN :ids ORDER BY i.id")
+    List<Object[]> findHistoryLines(@Param("ids") Collection<Long> ids);
+
+    long countByUserId(Long userId);
+    boolean existsByIdAndUserId(Long id, Long userId);
+    long countByUserIdAndStatus(Long userId, OrderStatus status);
+
+    // Offset pages without the COUNT(*) query
+    Slice<Order> findSliceBy(Pageable pageable);
+    Slice<Order> findSliceByStatus(OrderStatus status, Pageable pageable);
+
+    // Keyset pagination, newest first
+    List<Order> findByOrderByCreatedAtDescIdDesc(Pageable pageable);
+    List<Order> findByStatusOrderByCreatedAtDescIdDesc(OrderStatus status, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.createdAt < :createdAt OR " +
+           "(o.createdAt = :createdAt AND o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND (o.createdAt < :createdAt OR " +
+           "(o.createdAt = :createdAt AND o.id < :id)) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageAfterByStatus(@Param("status") OrderStatus status, @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package com.grengcry.repository;
+
+import com.grengcry.model.entity.OutboxEvent;
+
+import java.util.List;
+
+// Custom fragment of OutboxEventRepository: one JDBC batch instead of an IDENTITY insert per event
+public interface OutboxAppendRepository {
+
+    /** Inserts the events as unpublished rows in the caller's transaction. */
+    void append(List<OutboxEvent> events);
+}
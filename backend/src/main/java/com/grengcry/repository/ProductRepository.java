@@ -1,26 +1,74 @@
 package com.grengcry.repository;
 
+import com.grengcry.dto.response.ProductResponse;
 import com.grengcry.model.entity.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
     Page<Product> findByCategory(String category, Pageable pageable);
-    
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Product> searchProducts(@Param("search") String search, Pageable pageable);
-    
-    @Query("SELECT p FROM Product p WHERE p.category = :category AND " +
-           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Product> searchProductsByCategory(@Param("category") String category, 
-                                           @Param("search") String search, 
+
+    // Cheap freshness probe for conditional GETs
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    // Row-locks the products of a group of orders; id order keeps concurrent lockers from deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Current stock for the reservation counters, as (id, stock) pairs
+    @Query("SELECT p.id, p.stock FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Points the product at a new original image; variants are cleared until regenerated
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.image = :image, p.imageThumb = NULL, p.imageMedium = NULL, " +
+           "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int updateImage(@Param("id") Long id, @Param("image") String image);
+
+    // Only applies if the image was not replaced again while the variants were being generated
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.imageThumb = :thumb, p.imageMedium = :medium, " +
+           "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id AND p.image = :image")
+    int updateImageVariants(@Param("id") Long id, @Param("image") String image,
+                            @Param("thumb") String thumb, @Param("medium") String medium);
+
+    // Listing projections: select only the columns a product grid needs (no description) straight
+    // into DTOs, so no entities are hydrated and no dirty-checking snapshots are kept
+    String LISTING = "SELECT new com.grengcry.dto.response.ProductResponse(p.id, p.name, p.category, p.price, " +
+                     "p.stock, p.image, p.imageThumb, p.imageMedium, p.createdAt, p.updatedAt) FROM Product p ";
+
+    @Query(value = LISTING, countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductResponse> findListing(Pageable pageable);
+
+    // Offset page without the COUNT(*) query
+    @Query(LISTING)
+    Slice<ProductResponse> findListingSlice(Pageable pageable);
+
+    // Keyset pagination, newest first
+    @Query(LISTING + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductResponse> findListingFirst(Pageable pageable);
+
+    @Query(LISTING + "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductResponse> findListingAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
                                            Pageable pageable);
 }
@@ -0,0 +1,26 @@
+package com.grengcry.repository;
+
+import java.util.List;
+import java.util.Map;
+
+// Custom fragment of ProductRepository for stock updates that need plain JDBC batching
+public interface ProductStockRepository {
+
+    /**
+     * Atomically takes the given quantities out of stock in one JDBC batch. Each
+     * row is only updated if it still has enough stock, so concurrent checkouts
+     * can never drive stock negative.
+     *
+     * @return ids of the products that did not have enough stock; empty on success
+     */
+    List<Long> decrementStock(Map<Long, Integer> quantities);
+
+    /**
+     * Writes back decrements that were already checked against in-memory
+     * counters (see InventoryReservationService), in one JDBC batch.
+     */
+    void applyStockDecrements(Map<Long, Integer> quantities);
+
+    /** Puts quantities back into stock, e.g. for cancelled orders, in one JDBC batch. */
+    void applyStockIncrements(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,72 @@
+package com.grengcry.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?";
+
+    // Clamped at zero: an admin may have lowered stock below what was already sold
+    private static final String APPLY_SQL =
+            "UPDATE products SET stock = GREATEST(stock - ?, 0), updated_at = ? WHERE id = ?";
+
+    private static final String RESTOCK_SQL =
+            "UPDATE products SET stock = stock + ?, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        // Lock rows in id order so two carts with the same products cannot deadlock
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, line.getKey());
+            ps.setInt(4, line.getValue());
+        });
+
+        List<Long> insufficient = new ArrayList<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    insufficient.add(lines.get(i).getKey());
+                }
+                i++;
+            }
+        }
+        return insufficient;
+    }
+
+    @Override
+    public void applyStockDecrements(Map<Long, Integer> quantities) {
+        apply(APPLY_SQL, quantities);
+    }
+
+    @Override
+    public void applyStockIncrements(Map<Long, Integer> quantities) {
+        apply(RESTOCK_SQL, quantities);
+    }
+
+    private void apply(String sql, Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(sql, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, line.getKey());
+        });
+    }
+}
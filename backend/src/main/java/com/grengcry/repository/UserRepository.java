@@ -4,9 +4,16 @@ import com.grengcry.model.entity.User;
 import com.grengcry.model.enums.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +21,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     Page<User> findByRole(Role role, Pageable pageable);
+    long countByRole(Role role);
+
+    // Offset pages without the COUNT(*) query
+    Slice<User> findSliceBy(Pageable pageable);
+    Slice<User> findSliceByRole(Role role, Pageable pageable);
+
+    // Keyset pagination, newest first
+    List<User> findByOrderByCreatedAtDescIdDesc(Pageable pageable);
+    List<User> findByRoleOrderByCreatedAtDescIdDesc(Role role, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.createdAt < :createdAt OR " +
+           "(u.createdAt = :createdAt AND u.id < :id) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.role = :role AND (u.createdAt < :createdAt OR " +
+           "(u.createdAt = :createdAt AND u.id < :id)) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findPageAfterByRole(@Param("role") Role role, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Pageable pageable);
+
+    // Rehash-on-login: swaps the stored hash without loading the entity
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
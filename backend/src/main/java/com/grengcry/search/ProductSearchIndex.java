@@ -0,0 +1,273 @@
+package com.grengcry.search;
+
+import com.grengcry.model.entity.Product;
+import com.grengcry.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded inverted index over product name, category and description.
+ * Replaces the LOWER(..) LIKE '%term%' scans in ProductRepository, which no
+ * index can serve. The index lives in memory, is rebuilt from the database at
+ * startup and is kept current by ProductService after each committed write.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "of", "for", "with", "in", "on", "to");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+
+    // Writes that arrive while a rebuild is reading the table; replayed before the swap
+    private List<Runnable> journal;
+
+    // The startup run and the admin endpoint can overlap; they share the journal, so one runs at a time
+    private final Object rebuildLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildSegment();
+        }
+    }
+
+    private void rebuildSegment() {
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = null;
+        try {
+            fresh = load();
+        } finally {
+            // Also when the read failed: a journal left behind would keep every later write forever
+            lock.writeLock().lock();
+            try {
+                if (fresh != null) {
+                    segment = fresh;
+                    journal.forEach(Runnable::run);
+                }
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Product search index rebuilt with {} products and {} terms", fresh.documents.size(), fresh.postings.size());
+    }
+
+    private Segment load() {
+        Segment fresh = new Segment();
+        int pageNumber = 0;
+        Page<Product> page;
+        do {
+            page = productRepository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            page.getContent().forEach(fresh::add);
+        } while (page.hasNext());
+        return fresh;
+    }
+
+    /** Adds or replaces a product once the current transaction commits. */
+    public void index(Product product) {
+        IndexedProduct document = IndexedProduct.of(product);
+        afterCommit(() -> apply(s -> s.add(document)));
+    }
+
+    /** Removes a product once the current transaction commits. */
+    public void remove(Long productId) {
+        afterCommit(() -> apply(s -> s.remove(productId)));
+    }
+
+    /**
+     * Returns matching product ids, best match first. Every query term must
+     * match some indexed term; the last term also matches as a prefix so the
+     * search box can query while the user is typing.
+     */
+    public List<Long> search(String query, String category) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String categoryFilter = (category != null && !category.isBlank()) ? normalize(category) : null;
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            int documentCount = Math.max(segment.documents.size(), 1);
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = (i == terms.size() - 1);
+                Map<Long, Float> termScores = segment.score(terms.get(i), prefix, documentCount);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // AND semantics: keep only documents matching every term
+                    Map<Long, Float> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Float> e : termScores.entrySet()) {
+                        Float score = previous.get(e.getKey());
+                        if (score != null) {
+                            scores.put(e.getKey(), score + e.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .filter(e -> categoryFilter == null
+                            || categoryFilter.equals(segment.documents.get(e.getKey()).category()))
+                    .sorted(Map.Entry.<Long, Float>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(segment);
+            if (journal != null) {
+                journal.add(() -> change.accept(segment));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalize(text).split("[^\\p{Alnum}]+")) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .trim();
+    }
+
+    private record IndexedProduct(Long id, String name, String category, String description) {
+        static IndexedProduct of(Product product) {
+            return new IndexedProduct(product.getId(), product.getName(), product.getCategory(), product.getDescription());
+        }
+    }
+
+    private record Document(String category, Set<String> terms) {
+    }
+
+    /** One generation of the index: term -> (product id -> weighted term frequency). */
+    private static final class Segment {
+        private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        void add(Product product) {
+            add(IndexedProduct.of(product));
+        }
+
+        void add(IndexedProduct product) {
+            remove(product.id());
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, product.name(), NAME_WEIGHT);
+            addField(weights, product.category(), CATEGORY_WEIGHT);
+            addField(weights, product.description(), DESCRIPTION_WEIGHT);
+            weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(product.id(), weight));
+            String category = product.category() != null ? normalize(product.category()) : null;
+            documents.put(product.id(), new Document(category, weights.keySet()));
+        }
+
+        void remove(Long productId) {
+            Document existing = documents.remove(productId);
+            if (existing == null) {
+                return;
+            }
+            for (String term : existing.terms()) {
+                Map<Long, Float> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(productId);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        Map<Long, Float> score(String term, boolean prefix, int documentCount) {
+            Map<Long, Float> scores = new HashMap<>();
+            SortedMap<String, Map<Long, Float>> matches = prefix
+                    ? postings.subMap(term, term + Character.MAX_VALUE)
+                    : postings.subMap(term, term + '\0');
+            for (Map.Entry<String, Map<Long, Float>> match : matches.entrySet()) {
+                Map<Long, Float> docs = match.getValue();
+                float idf = (float) Math.log(1.0 + (double) documentCount / docs.size());
+                // Exact term matches rank above prefix completions
+                float boost = match.getKey().equals(term) ? 1.0f : 0.5f;
+                docs.forEach((id, weight) -> scores.merge(id, weight * idf * boost, Math::max));
+            }
+            return scores;
+        }
+
+        private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokenize(text)) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            frequencies.forEach((term, tf) ->
+                    weights.merge(term, fieldWeight * (1.0f + (float) Math.log(tf)), Float::sum));
+        }
+    }
+}
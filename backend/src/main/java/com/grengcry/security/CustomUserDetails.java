@@ -1,6 +1,7 @@
 package com.grengcry.security;
 
 import com.grengcry.model.entity.User;
+import com.grengcry.model.enums.Role;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,11 +17,31 @@ public class CustomUserDetails implements UserDetails {
         this.user = user;
     }
 
+    /**
+     * Principal rebuilt from token claims. It carries no password and no name;
+     * code that needs more than id, email and role loads the user itself.
+     */
+    public static CustomUserDetails of(Long id, String email, Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole(role);
+        return new CustomUserDetails(user);
+    }
+
     // This is our custom method to easily get the ID in controllers
     public Long getId() {
         return user.getId();
     }
 
+    public String getName() {
+        return user.getName();
+    }
+
+    public Role getRole() {
+        return user.getRole();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // Spring Security requires the "ROLE_" prefix
@@ -2,22 +2,28 @@ package com.grengcry.security;
 
 import com.grengcry.model.entity.User;
 import com.grengcry.repository.UserRepository;
+import com.grengcry.service.UserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         // Find the user from the database by their email (which we use as the username)
-        User user = userRepository.findByEmail(email)
+        User user = userCache.findByEmail(email)
                 .orElseThrow(() ->
                     new UsernameNotFoundException("User not found with email: " + email)
                 );
@@ -25,4 +31,18 @@ public class CustomUserDetailsService implements UserDetailsService {
         // Wrap the User entity in our CustomUserDetails adapter and return it
         return new CustomUserDetails(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Called by the authentication provider after a successful login whose
+     * stored hash uses a lower cost than the current encoder, with the password
+     * already re-hashed at the current cost.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        CustomUserDetails details = (CustomUserDetails) userDetails;
+        userRepository.updatePassword(details.getId(), newPassword);
+        userCache.evict(details.getId(), details.getUsername());
+        return userCache.findById(details.getId()).map(CustomUserDetails::new).orElse(details);
+    }
+}
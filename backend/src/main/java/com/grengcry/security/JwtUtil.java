@@ -1,11 +1,13 @@
 package com.grengcry.security;
 
+import com.grengcry.model.enums.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
@@ -14,17 +16,39 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies the HS256 tokens used by the API. The signing key and the
+ * parser are built once; a built JwtParser is immutable and safe to share
+ * between request threads.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final String USER_ID = "uid";
+    private static final String ROLE = "role";
+    private static final String TOKEN_VERSION = "tv";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long expiration;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expiration = expiration;
+    }
+
+    /**
+     * Verifies the signature and expiry and returns the claims in one pass, or
+     * null when the token is malformed, tampered with or expired.
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
     }
 
     public String extractUsername(String token) {
@@ -41,40 +65,52 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    public String generateToken(UserDetails userDetails) {
+    /**
+     * Signs a token carrying everything the API needs to know about the caller,
+     * so authenticated requests never have to read the user row.
+     */
+    public String generateToken(CustomUserDetails userDetails, long tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID, userDetails.getId());
+        claims.put(ROLE, userDetails.getRole().name());
+        claims.put(TOKEN_VERSION, tokenVersion);
         return createToken(claims, userDetails.getUsername());
     }
 
+    /** Returns the principal described by the claims, or null if a claim is missing. */
+    public CustomUserDetails toPrincipal(Claims claims) {
+        Long userId = claims.get(USER_ID, Long.class);
+        String role = claims.get(ROLE, String.class);
+        if (userId == null || role == null || claims.getSubject() == null || tokenVersion(claims) == null) {
+            return null;
+        }
+        try {
+            return CustomUserDetails.of(userId, claims.getSubject(), Role.valueOf(role));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    public Long tokenVersion(Claims claims) {
+        return claims.get(TOKEN_VERSION, Long.class);
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    // Overloaded method for validation that takes UserDetails
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    // NEW METHOD: Simple validation that only checks expiration and signature
+    // The parser already rejects bad signatures and expired tokens
     public Boolean validateToken(String token) {
-        return !isTokenExpired(token);
+        return parseClaims(token) != null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.grengcry.security;
+
+import com.grengcry.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt on a small dedicated pool instead of the request threads. A hash
+ * takes tens of milliseconds of pure CPU, so a burst of logins would otherwise
+ * occupy every Tomcat thread; here the burst queues up to a fixed depth and
+ * anything beyond that is turned away with a 503 right away.
+ *
+ * <p>The cost factor is either configured or, with strength 0, calibrated at
+ * startup to the largest cost whose hash stays within the target time. Hashes
+ * made with a lower cost are upgraded on the next successful login (see
+ * {@link CustomUserDetailsService#updatePassword}).
+ */
+@Component
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledPasswordEncoder.class);
+
+    // BCrypt's default; calibration never goes below it
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+
+    public PooledPasswordEncoder(@Value("${security.password.strength:10}") int strength,
+                                 @Value("${security.password.calibration-target-ms:250}") long targetMillis,
+                                 @Value("${security.password.threads:2}") int threads,
+                                 @Value("${security.password.queue-capacity:50}") int queueCapacity,
+                                 @Value("${security.password.max-wait-ms:2000}") long maxWaitMillis) {
+        int cost = strength > 0 ? strength : calibrate(targetMillis);
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.maxWaitMillis = maxWaitMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing with BCrypt cost {} on {} threads", cost, threads);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // True for hashes made with a lower cost than the current one
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            throw busy();
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw busy();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static ServiceUnavailableException busy() {
+        return new ServiceUnavailableException("Too many sign-in requests, please retry", 1);
+    }
+
+    /**
+     * Times one hash at the minimum cost and doubles from there: every cost
+     * step doubles the work, so there is no need to time the expensive ones.
+     */
+    private static int calibrate(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode("calibration"); // warm-up
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        int cost = MIN_STRENGTH;
+        while (cost < MAX_STRENGTH && millis * 2 <= targetMillis) {
+            millis *= 2;
+            cost++;
+        }
+        log.info("Calibrated BCrypt cost {} (~{} ms per hash, target {} ms)", cost, Math.round(millis), targetMillis);
+        return cost;
+    }
+}
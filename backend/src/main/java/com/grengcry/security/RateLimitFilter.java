@@ -0,0 +1,165 @@
+package com.grengcry.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grengcry.dto.response.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets in front of the controllers. Clients are keyed by
+ * user id when the JWT filter has already authenticated the request, and by
+ * remote address otherwise. Behind a reverse proxy the remote address is the
+ * proxy's unless server.forward-headers-strategy is set, in which case it is
+ * the client address resolved from the forwarded headers. Each route group
+ * (auth, catalog reads, uploaded images, everything else) has its own limits
+ * and its own buckets.
+ *
+ * <p>A bucket is a single AtomicLong updated with compare-and-set (the GCRA
+ * form of a token bucket): it holds the time at which the bucket will be full
+ * again. A bucket whose time has passed is indistinguishable from a new one,
+ * so the periodic sweep can drop it without losing state. When a route still
+ * tracks max-keys clients after a sweep, new clients share one overflow bucket
+ * until space frees up.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final int maxKeys;
+    private final List<Route> routes;
+    // Replaced by tests to move time forward
+    LongSupplier clock = System::nanoTime;
+
+    public RateLimitFilter(@Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.max-keys:100000}") int maxKeys,
+                           @Value("${rate-limit.auth.capacity:10}") int authCapacity,
+                           @Value("${rate-limit.auth.per-second:0.5}") double authRate,
+                           @Value("${rate-limit.catalog.capacity:100}") int catalogCapacity,
+                           @Value("${rate-limit.catalog.per-second:20}") double catalogRate,
+                           @Value("${rate-limit.uploads.capacity:300}") int uploadsCapacity,
+                           @Value("${rate-limit.uploads.per-second:50}") double uploadsRate,
+                           @Value("${rate-limit.default.capacity:60}") int defaultCapacity,
+                           @Value("${rate-limit.default.per-second:10}") double defaultRate) {
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        // First match wins
+        this.routes = List.of(
+                new Route(new AntPathRequestMatcher("/api/auth/**"), authCapacity, authRate),
+                new Route(new AntPathRequestMatcher("/api/products/**", HttpMethod.GET.name()), catalogCapacity, catalogRate),
+                // A catalog page pulls many thumbnails at once; these are static files that never touch the database
+                new Route(new OrRequestMatcher(
+                        new AntPathRequestMatcher("/uploads/**", HttpMethod.GET.name()),
+                        new AntPathRequestMatcher("/uploads/**", HttpMethod.HEAD.name())), uploadsCapacity, uploadsRate),
+                new Route(AnyRequestMatcher.INSTANCE, defaultCapacity, defaultRate));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled || HttpMethod.OPTIONS.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Route route = routes.stream().filter(r -> r.matcher.matches(request)).findFirst().orElseThrow();
+        long waitNanos = route.acquire(clientKey(request), clock.getAsLong(), maxKeys);
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            // The public chain adds a shared-cache Cache-Control to responses that have none
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("TOO_MANY_REQUESTS", "Rate limit exceeded, please retry later"));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        routes.forEach(route -> route.sweep(now));
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return "u:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static final class Route {
+        private final RequestMatcher matcher;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+
+        private Route(RequestMatcher matcher, int capacity, double perSecond) {
+            this.matcher = matcher;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            this.burstNanos = intervalNanos * (capacity - 1);
+        }
+
+        /** Takes one token; returns 0 on success or the nanoseconds until one is available. */
+        long acquire(String key, long now, int maxKeys) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxKeys) {
+                    sweep(now);
+                }
+                bucket = buckets.size() < maxKeys
+                        ? buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE))
+                        : overflow;
+            }
+            while (true) {
+                long full = bucket.get();
+                // Long.MIN_VALUE marks a fresh bucket; nanoTime values can be negative
+                long start = (full == Long.MIN_VALUE || full - now < 0) ? now : full;
+                long wait = start - now - burstNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.compareAndSet(full, start + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        // A bucket that has refilled completely carries no state worth keeping
+        void sweep(long now) {
+            buckets.entrySet().removeIf(e -> e.getValue().get() == Long.MIN_VALUE || e.getValue().get() - now <= 0);
+        }
+    }
+}
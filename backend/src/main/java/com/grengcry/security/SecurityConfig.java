@@ -1,23 +1,31 @@
 package com.grengcry.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.HeaderWriter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableWebSecurity
@@ -30,7 +38,54 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Value("${catalog.public.max-age-seconds:60}")
+    private long publicMaxAgeSeconds;
+
+    // Public read tier: anonymous catalog reads (products, product feedback, images).
+    // This chain has no JWT filter, so these requests never parse a token or hit the
+    // user table, and it emits no session or per-user state, so responses can be
+    // stored by shared caches. Mutations on the same paths fall through to the chain below.
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicCatalogFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(new OrRequestMatcher(
+                new AntPathRequestMatcher("/api/products/**", HttpMethod.GET.name()),
+                new AntPathRequestMatcher("/uploads/**", HttpMethod.GET.name()),
+                new AntPathRequestMatcher("/uploads/**", HttpMethod.HEAD.name())))
+            .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .requestCache(cache -> cache.disable())
+            // Replace Spring Security's default "no-cache, no-store" with a shared-cache friendly policy;
+            // controllers can still set their own Cache-Control, which takes precedence
+            .headers(headers -> headers
+                .cacheControl(cacheControl -> cacheControl.disable())
+                .addHeaderWriter(publicCacheControlWriter()))
+            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+            // No token is read on this chain, so anonymous readers are throttled per client address
+            .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
+    // Header writers run when the response commits, so the status is final here. Only successful
+    // responses may be shared; a 404 for a product about to be created or a transient 500 must not be.
+    private HeaderWriter publicCacheControlWriter() {
+        String shared = CacheControl.maxAge(publicMaxAgeSeconds, TimeUnit.SECONDS).cachePublic().getHeaderValue();
+        String none = CacheControl.noStore().getHeaderValue();
+        return (request, response) -> {
+            if (!response.containsHeader(HttpHeaders.CACHE_CONTROL)) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, response.getStatus() < 400 ? shared : none);
+            }
+        };
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             // NEW ADDITION: Enable CORS using our custom configuration
@@ -51,7 +106,10 @@ public class SecurityConfig {
             )
             
             // Add our custom JWT filter before the standard username/password authentication filter
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+
+            // Throttle after the JWT filter so signed-in callers are limited by user id, not address
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -74,9 +132,20 @@ public class SecurityConfig {
         return source;
     }
 
+    // The JWT filter is a @Component, which would make Spring Boot also register it as a
+    // plain servlet filter for every request. Keep it confined to the authenticated chain.
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     @Bean
@@ -0,0 +1,44 @@
+package com.grengcry.security;
+
+import com.grengcry.repository.OrderArchiveRepository;
+import com.grengcry.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ownership checks referenced from @PreAuthorize expressions as
+ * {@code @securityService}. Admins are let through by the expressions
+ * themselves, so these only answer whether the caller owns the resource.
+ */
+@Component("securityService")
+public class SecurityService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    public boolean isOwner(Authentication authentication, Long userId) {
+        Long currentUserId = currentUserId(authentication);
+        return currentUserId != null && currentUserId.equals(userId);
+    }
+
+    // Archived orders stay readable by their owner, like GET /api/orders/{id} serves them to admins
+    public boolean isOrderOwner(Authentication authentication, Long orderId) {
+        Long currentUserId = currentUserId(authentication);
+        if (currentUserId == null || orderId == null) {
+            return false;
+        }
+        return orderRepository.existsByIdAndUserId(orderId, currentUserId)
+                || orderArchiveRepository.existsByIdAndUserId(orderId, currentUserId);
+    }
+
+    private static Long currentUserId(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.grengcry.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation table for issued tokens. Every token carries the version its user
+ * had when it was signed; bumping a user's version rejects all of their older
+ * tokens. Versions are bump timestamps, so a user who was never bumped is at 0
+ * and entries older than the token lifetime can be dropped: any token they
+ * would reject has expired anyway.
+ *
+ * <p>The table lives in memory. A restart forgets revocations made during the
+ * last token lifetime, which is the price of not reading the user row on every
+ * request.
+ */
+@Component
+public class TokenVersions {
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final long tokenLifetimeMillis;
+
+    public TokenVersions(@Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    public long current(Long userId) {
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        return tokenVersion >= current(userId);
+    }
+
+    /**
+     * Revokes every token issued to the user so far. Runs again after the
+     * surrounding transaction commits, so a token signed from the old row
+     * between the two calls is rejected as well.
+     */
+    public void bump(Long userId) {
+        advance(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(userId);
+                }
+            });
+        }
+    }
+
+    private void advance(Long userId) {
+        long now = System.currentTimeMillis();
+        versions.merge(userId, now, (previous, next) -> Math.max(previous + 1, next));
+        versions.values().removeIf(version -> version < now - tokenLifetimeMillis);
+    }
+}
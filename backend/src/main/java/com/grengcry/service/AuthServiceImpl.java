@@ -7,13 +7,14 @@ import com.grengcry.exception.BadRequestException;
 import com.grengcry.model.entity.User;
 import com.grengcry.model.enums.Role;
 import com.grengcry.repository.UserRepository;
+import com.grengcry.security.CustomUserDetails;
 import com.grengcry.security.JwtUtil;
+import com.grengcry.security.TokenVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -32,6 +33,12 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private TokenVersions tokenVersions;
+
+    @Autowired
+    private UserCache userCache;
+
     @Override
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -45,11 +52,10 @@ public class AuthServiceImpl implements AuthService {
         user.setRole(Role.CUSTOMER);
 
         userRepository.save(user);
+        userCache.evict(user.getId(), user.getEmail());
 
-        LoginRequest loginRequest = new LoginRequest();
-        loginRequest.setEmail(request.getEmail());
-        loginRequest.setPassword(request.getPassword());
-        return login(loginRequest);
+        // The password was just hashed above; verifying it again would cost a second hash
+        return issueToken(new CustomUserDetails(user));
     }
 
     @Override
@@ -63,12 +69,12 @@ public class AuthServiceImpl implements AuthService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // THE FIX IS HERE: We get the UserDetails from the Authentication principal.
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String jwt = jwtUtil.generateToken(userDetails);
-
-        User user = userRepository.findByEmail(request.getEmail()).get();
+        // The authentication manager already loaded the user; no second lookup
+        return issueToken((CustomUserDetails) authentication.getPrincipal());
+    }
 
-        return new AuthResponse(jwt, user.getName(), user.getRole().name());
+    private AuthResponse issueToken(CustomUserDetails userDetails) {
+        String jwt = jwtUtil.generateToken(userDetails, tokenVersions.current(userDetails.getId()));
+        return new AuthResponse(jwt, userDetails.getName(), userDetails.getRole().name());
     }
 }
\ No newline at end of file
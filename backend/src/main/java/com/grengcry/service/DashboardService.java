@@ -0,0 +1,286 @@
+package com.grengcry.service;
+
+import com.grengcry.dto.response.DashboardResponse;
+import com.grengcry.dto.response.ProductResponse;
+import com.grengcry.event.OrderEvent;
+import com.grengcry.event.OrderEventListener;
+import com.grengcry.model.enums.OrderEventType;
+import com.grengcry.model.enums.OrderStatus;
+import com.grengcry.repository.OrderArchiveRepository;
+import com.grengcry.repository.OrderRepository;
+import com.grengcry.repository.OutboxEventRepository;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.util.EntityMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Admin dashboard figures kept up to date from order events instead of being
+ * aggregated over the orders table on every request. The counters are loaded
+ * once from the database at startup, then moved by each ORDER_CREATED and
+ * ORDER_STATUS_CHANGED event; reads return a precomputed response.
+ *
+ * A scheduled rebuild recomputes everything from the tables to repair any
+ * drift. Events delivered while it runs are journaled and replayed onto the
+ * new counters, minus those the rebuild already saw: every event still
+ * unpublished in the rebuild's snapshot has its change reflected in the
+ * aggregates read in that same snapshot.
+ *
+ * Counters are per JVM and fed by the outbox dispatcher of this instance.
+ */
+@Service
+public class DashboardService implements OrderEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Value("${dashboard.days:30}")
+    private int days;
+
+    @Value("${dashboard.top-products:10}")
+    private int topProducts;
+
+    // Ids of recently applied events, to drop redeliveries
+    @Value("${dashboard.dedup-window:100000}")
+    private int dedupWindow;
+
+    private final TransactionTemplate snapshotTemplate;
+
+    private final Object lock = new Object();
+    private Aggregates aggregates = new Aggregates(Set.of(), 0);
+    // Events applied while a rebuild is reading the tables; replayed before the swap
+    private List<OrderEvent> journal;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile DashboardResponse snapshot = new DashboardResponse();
+
+    public DashboardService(PlatformTransactionManager transactionManager) {
+        // One read-only snapshot so the aggregates and the unpublished outbox ids agree
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setReadOnly(true);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public DashboardResponse getDashboard() {
+        return snapshot;
+    }
+
+    @Override
+    public void onOrderEvents(List<OrderEvent> events) {
+        synchronized (lock) {
+            events.forEach(aggregates::apply);
+            if (journal != null) {
+                journal.addAll(events);
+            }
+        }
+        publish();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${dashboard.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /** Recomputes the counters from the tables; returns false when a rebuild is already running. */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false; // one journal at a time
+        }
+        try {
+            Aggregates fresh;
+            try {
+                fresh = snapshotTemplate.execute(status -> load());
+            } catch (RuntimeException ex) {
+                synchronized (lock) {
+                    journal = null;
+                }
+                throw ex;
+            }
+            synchronized (lock) {
+                journal.forEach(fresh::apply);
+                journal = null;
+                aggregates = fresh;
+            }
+            publish();
+            log.info("Dashboard aggregates rebuilt: {} orders, {} products", fresh.totalOrders, fresh.products.size());
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private Aggregates load() {
+        Aggregates fresh = new Aggregates(new HashSet<>(outboxEventRepository.findUnpublishedIds()), dedupWindow);
+        // Journal from here on: the first read fixed the snapshot, so an event applied before
+        // it is either in the tables already or among the unpublished ids above
+        synchronized (lock) {
+            journal = new ArrayList<>();
+        }
+        // Archived orders still count; they are only moved out of the live tables
+        for (Object[] row : orderRepository.countGroupByStatus()) {
+            fresh.statusCounts.merge((OrderStatus) row[0], ((Number) row[1]).longValue(), Long::sum);
+        }
+        for (Object[] row : orderArchiveRepository.countGroupByStatus()) {
+            fresh.statusCounts.merge((OrderStatus) row[0], ((Number) row[1]).longValue(), Long::sum);
+        }
+        LocalDateTime since = LocalDate.now().minusDays(days - 1L).atStartOfDay();
+        for (Object[] row : orderRepository.sumByDaySince(since, OrderStatus.CANCELLED)) {
+            fresh.days.put((LocalDate) row[0], new DayTotals(((Number) row[1]).longValue(), decimal(row[2])));
+        }
+        List<Object[]> sales = new ArrayList<>(orderRepository.sumSalesByProduct(OrderStatus.CANCELLED));
+        sales.addAll(orderArchiveRepository.sumSalesByProduct(OrderStatus.CANCELLED));
+        for (Object[] row : sales) {
+            fresh.products.merge((Long) row[0], new ProductTotals(((Number) row[1]).longValue(), decimal(row[2])),
+                    (a, b) -> new ProductTotals(a.units + b.units, a.revenue.add(b.revenue)));
+        }
+        fresh.totalOrders = fresh.statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        fresh.rebuiltAt = LocalDateTime.now();
+        return fresh;
+    }
+
+    // Builds the response under the lock, then resolves product names outside it
+    private void publish() {
+        DashboardResponse response = new DashboardResponse();
+        List<Map.Entry<Long, ProductTotals>> best;
+        synchronized (lock) {
+            response.setTotalOrders(aggregates.totalOrders);
+            response.setOrdersByStatus(new EnumMap<>(aggregates.statusCounts));
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < days; i++) {
+                LocalDate day = today.minusDays(i);
+                DayTotals totals = aggregates.days.getOrDefault(day, new DayTotals(0, BigDecimal.ZERO));
+                response.getDays().add(new DashboardResponse.DayStats(day, totals.orders, totals.revenue));
+            }
+            aggregates.days.keySet().removeIf(day -> day.isBefore(today.minusDays(days - 1L)));
+            best = aggregates.products.entrySet().stream()
+                    .filter(e -> e.getValue().units > 0)
+                    .sorted(Map.Entry.<Long, ProductTotals>comparingByValue(Comparator.comparingLong(ProductTotals::units))
+                            .reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(topProducts)
+                    .map(e -> Map.entry(e.getKey(), e.getValue()))
+                    .collect(Collectors.toList());
+            response.setRebuiltAt(aggregates.rebuiltAt);
+            response.setUpdatedAt(aggregates.updatedAt != null ? aggregates.updatedAt : aggregates.rebuiltAt);
+        }
+
+        List<Long> ids = best.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        Map<Long, String> names = productCache.getProducts(ids, missing -> productRepository.findAllById(missing).stream()
+                        .map(EntityMapper::toProductResponse)
+                        .collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(ProductResponse::getId, ProductResponse::getName));
+        for (Map.Entry<Long, ProductTotals> e : best) {
+            response.getTopProducts().add(new DashboardResponse.ProductStats(e.getKey(), names.get(e.getKey()),
+                    e.getValue().units, e.getValue().revenue));
+        }
+        snapshot = response;
+    }
+
+    private static BigDecimal decimal(Object value) {
+        return value == null ? BigDecimal.ZERO : new BigDecimal(value.toString());
+    }
+
+    private record DayTotals(long orders, BigDecimal revenue) {
+    }
+
+    private record ProductTotals(long units, BigDecimal revenue) {
+    }
+
+    /** One generation of counters. Guarded by the service lock. */
+    private static final class Aggregates {
+        private final Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+        private final Map<LocalDate, DayTotals> days = new HashMap<>();
+        private final Map<Long, ProductTotals> products = new HashMap<>();
+        private long totalOrders;
+        private LocalDateTime rebuiltAt;
+        private LocalDateTime updatedAt;
+
+        // Events whose changes the loaded figures already contain
+        private final Set<Long> reflected;
+        private final Set<Long> applied;
+
+        Aggregates(Set<Long> reflected, int dedupWindow) {
+            this.reflected = reflected;
+            this.applied = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                    return size() > dedupWindow;
+                }
+            });
+        }
+
+        void apply(OrderEvent event) {
+            if (reflected.contains(event.eventId()) || !applied.add(event.eventId())) {
+                return;
+            }
+            LocalDate day = event.orderCreatedAt() != null ? event.orderCreatedAt().toLocalDate() : null;
+            if (event.type() == OrderEventType.ORDER_CREATED) {
+                totalOrders++;
+                statusCounts.merge(event.status(), 1L, Long::sum);
+                if (day != null) {
+                    days.merge(day, new DayTotals(1, event.total()),
+                            (a, b) -> new DayTotals(a.orders + b.orders, a.revenue.add(b.revenue)));
+                }
+                addLines(event.items(), 1);
+            } else {
+                statusCounts.merge(event.previousStatus(), -1L, Long::sum);
+                statusCounts.merge(event.status(), 1L, Long::sum);
+                if (event.status() == OrderStatus.CANCELLED) {
+                    // Days outside the window are not tracked; an unknown day is left alone
+                    days.computeIfPresent(day, (d, t) -> new DayTotals(t.orders, t.revenue.subtract(event.total())));
+                    addLines(event.items(), -1);
+                }
+            }
+            updatedAt = LocalDateTime.now();
+        }
+
+        private void addLines(List<OrderEvent.Line> lines, int sign) {
+            if (lines == null) {
+                return;
+            }
+            for (OrderEvent.Line line : lines) {
+                BigDecimal value = line.price().multiply(BigDecimal.valueOf((long) line.quantity() * sign));
+                products.merge(line.productId(), new ProductTotals((long) line.quantity() * sign, value),
+                        (a, b) -> new ProductTotals(a.units + b.units, a.revenue.add(b.revenue)));
+            }
+        }
+    }
+}
@@ -11,10 +11,12 @@ import com.grengcry.repository.FeedbackRepository;
 import com.grengcry.repository.ProductRepository;
 import com.grengcry.repository.UserRepository;
 import com.grengcry.util.EntityMapper;
+import com.grengcry.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,8 +35,16 @@ public class FeedbackService {
     @Autowired
     private ProductRepository productRepository;
 
-    public PagedResponse<FeedbackResponse> getFeedbacksForProduct(Long productId, Integer page, Integer limit) {
+    public PagedResponse<FeedbackResponse> getFeedbacksForProduct(Long productId, Integer page, Integer limit, boolean withTotal) {
         Pageable pageable = PageRequest.of(page - 1, limit);
+        if (!withTotal) {
+            Slice<Feedback> feedbackSlice = feedbackRepository.findSliceByProductId(productId, pageable);
+            List<FeedbackResponse> feedbacks = feedbackSlice.getContent().stream()
+                .map(EntityMapper::toFeedbackResponse)
+                .collect(Collectors.toList());
+            return PagedResponse.ofSlice(feedbacks, page, feedbackSlice.hasNext());
+        }
+
         Page<Feedback> feedbackPage = feedbackRepository.findByProductId(productId, pageable);
         
         List<FeedbackResponse> feedbacks = feedbackPage.getContent().stream()
@@ -49,6 +59,19 @@ public class FeedbackService {
         );
     }
 
+    public PagedResponse<FeedbackResponse> getFeedbacksForProductAfter(Long productId, String cursor, Integer limit, boolean withTotal) {
+        KeysetCursor.checkLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // Fetch one extra row to find out whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<Feedback> rows = (after == null)
+            ? feedbackRepository.findByProductIdOrderByCreatedAtDescIdDesc(productId, pageable)
+            : feedbackRepository.findPageAfter(productId, after.createdAt(), after.id(), pageable);
+        Long total = withTotal ? feedbackRepository.countByProductId(productId) : null;
+        return KeysetCursor.toPage(rows, limit, total, EntityMapper::toFeedbackResponse,
+            Feedback::getCreatedAt, Feedback::getId);
+    }
+
     @Transactional
     public FeedbackResponse createFeedback(Long productId, Long userId, CreateFeedbackRequest request) {
         // Find the user who is giving the feedback
@@ -0,0 +1,175 @@
+package com.grengcry.service;
+
+import com.grengcry.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates resized JPEG variants (thumbnail and medium) of uploaded product
+ * images on a small bounded worker pool, off the request thread and outside any
+ * transaction. Until a product's variants are ready, clients fall back to the
+ * original image.
+ */
+@Service
+public class ImageProcessingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageProcessingService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Value("${image.variants.thumb-size:200}")
+    private int thumbSize;
+
+    @Value("${image.variants.medium-size:800}")
+    private int mediumSize;
+
+    @Value("${image.variants.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    // Refuse to decode absurd dimensions; a small file can still expand to gigabytes of pixels
+    @Value("${image.variants.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    private final ThreadPoolExecutor executor;
+
+    public ImageProcessingService(@Value("${image.processing.threads:2}") int threads,
+                                  @Value("${image.processing.queue-capacity:100}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues variant generation for a freshly stored original. When the queue is
+     * full the product simply keeps serving the original image.
+     */
+    public void submit(Long productId, String image, Path source) {
+        try {
+            executor.execute(() -> process(productId, image, source));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Image queue full, skipping variants for product {} ({})", productId, image);
+        }
+    }
+
+    private void process(Long productId, String image, Path source) {
+        try {
+            BufferedImage original = read(source);
+            if (original == null) {
+                log.info("No variants for {}: unsupported or oversized image", source.getFileName());
+                return;
+            }
+            String baseName = stripExtension(source.getFileName().toString());
+            String thumb = writeVariant(original, thumbSize, source.resolveSibling(baseName + "_thumb.jpg"));
+            String medium = writeVariant(original, mediumSize, source.resolveSibling(baseName + "_medium.jpg"));
+
+            String prefix = image.substring(0, image.length() - source.getFileName().toString().length());
+            if (productRepository.updateImageVariants(productId, image, prefix + thumb, prefix + medium) > 0) {
+                productCache.productChanged(productId);
+            }
+        } catch (Exception ex) {
+            log.error("Could not generate image variants for product {}", productId, ex);
+        }
+    }
+
+    private BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxSourcePixels) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private String writeVariant(BufferedImage original, int maxSide, Path target) throws IOException {
+        double scale = Math.min(1.0, (double) maxSide / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+        // JPEG has no alpha channel, so flatten transparent PNGs onto white
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temp = Files.createTempFile(target.getParent(), "variant", ".tmp");
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(resized, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        // Publish the file in one step so the image endpoint never serves a half-written variant
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return target.getFileName().toString();
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
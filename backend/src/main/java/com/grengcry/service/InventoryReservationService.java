@@ -0,0 +1,348 @@
+package com.grengcry.service;
+
+import com.grengcry.repository.OrderRepository;
+import com.grengcry.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional in-memory stock reservation for flash sales. Checkout takes stock
+ * from a per-product counter with a compare-and-set instead of an UPDATE on a
+ * hot products row, so concurrent orders for the same product no longer queue
+ * on one row lock. Orders created this way are flagged stockPending and their
+ * decrements are written back to products.stock in batches by a scheduled
+ * flush; on startup any flagged orders left by a crash are applied before
+ * requests are accepted.
+ *
+ * Counters are per JVM, so this mode assumes a single application instance.
+ */
+@Service
+public class InventoryReservationService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryReservationService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Value("${inventory.reservations.enabled:false}")
+    private boolean enabled;
+
+    // A reservation made outside a transaction that is neither committed nor released by then is handed back
+    @Value("${inventory.reservations.timeout-ms:30000}")
+    private long timeoutMillis;
+
+    @Value("${inventory.reservations.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> open = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Committed> writeBack = new ConcurrentLinkedQueue<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+
+    // Counter loads read products.stock and the unflushed amounts together; a flush must not
+    // commit in between, or the same decrement would be counted twice or not at all
+    private final ReadWriteLock loadLock = new ReentrantReadWriteLock();
+
+    public InventoryReservationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes the quantities out of the in-memory counters, all or nothing. When
+     * called inside a transaction the reservation settles itself on completion:
+     * committed into the write-back queue, or released on rollback. Only
+     * reservations made without a transaction can time out; the caller must
+     * commit or release those itself.
+     */
+    public Reservation reserve(Map<Long, Integer> quantities) {
+        // Id order keeps partial reservations predictable when they have to be undone
+        Map<Long, Integer> lines = new TreeMap<>(quantities);
+        load(lines.keySet());
+
+        List<Map.Entry<Long, Integer>> taken = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            if (!stock(line.getKey()).tryTake(line.getValue())) {
+                taken.forEach(t -> stock(t.getKey()).giveBack(t.getValue()));
+                return Reservation.shortOf(line.getKey());
+            }
+            taken.add(line);
+        }
+
+        boolean transactional = TransactionSynchronizationManager.isSynchronizationActive();
+        Reservation reservation = new Reservation(reservationIds.incrementAndGet(), lines,
+                transactional ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMillis, null);
+        open.put(reservation.id, reservation);
+        if (transactional) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        commit(reservation);
+                    } else {
+                        release(reservation);
+                    }
+                }
+            });
+        }
+        return reservation;
+    }
+
+    /** Marks the reserved stock as sold; it is written to the database by the next flush. */
+    public void commit(Reservation reservation) {
+        open.remove(reservation.id);
+        boolean expired = !reservation.settled.compareAndSet(false, true);
+        reservation.quantities.forEach((productId, quantity) -> {
+            Stock stock = stock(productId);
+            if (expired) {
+                // The timeout already returned this stock, but the caller committed anyway: take it again
+                stock.available.addAndGet(-quantity);
+            } else {
+                stock.held.addAndGet(-quantity);
+            }
+            stock.unflushed.addAndGet(quantity);
+        });
+        if (expired) {
+            log.warn("Reservation {} committed after it had expired; stock may be oversold", reservation.id);
+        }
+        writeBack.add(new Committed(reservation.orderId, reservation.quantities));
+    }
+
+    /** Returns the reserved stock to the counters. Safe to call more than once. */
+    public void release(Reservation reservation) {
+        open.remove(reservation.id);
+        if (reservation.settled.compareAndSet(false, true)) {
+            reservation.quantities.forEach((productId, quantity) -> stock(productId).giveBack(quantity));
+        }
+    }
+
+    /** Re-reads a product's stock after it was edited outside of checkout. */
+    public void refresh(Long productId) {
+        Stock stock = stocks.get(productId);
+        if (!enabled || stock == null) {
+            return;
+        }
+        loadLock.readLock().lock();
+        try {
+            for (Object[] row : productRepository.findStockByIdIn(List.of(productId))) {
+                stock.available.set((Integer) row[1] - stock.unflushed.get() - stock.held.get());
+            }
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    public void refreshAll() {
+        stocks.keySet().forEach(this::refresh);
+    }
+
+    public void forget(Long productId) {
+        stocks.remove(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.flush-interval-ms:200}")
+    public void flush() {
+        while (enabled && !writeBack.isEmpty()) {
+            List<Committed> batch = new ArrayList<>();
+            Committed next;
+            while (batch.size() < flushBatchSize && (next = writeBack.poll()) != null) {
+                batch.add(next);
+            }
+
+            Map<Long, Integer> decrements = new HashMap<>();
+            List<Long> orderIds = new ArrayList<>();
+            for (Committed committed : batch) {
+                orderIds.add(committed.orderId());
+                committed.quantities().forEach((id, quantity) -> decrements.merge(id, quantity, Integer::sum));
+            }
+
+            loadLock.writeLock().lock();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    productRepository.applyStockDecrements(decrements);
+                    orderRepository.clearStockPending(orderIds);
+                });
+                decrements.forEach((id, quantity) -> stock(id).unflushed.addAndGet(-quantity));
+            } catch (RuntimeException ex) {
+                // Keep the batch and retry on the next tick; the orders stay flagged either way
+                writeBack.addAll(batch);
+                log.error("Stock write-back of {} orders failed, will retry", batch.size(), ex);
+                return;
+            } finally {
+                loadLock.writeLock().unlock();
+            }
+            productCache.productsChanged(decrements.keySet());
+        }
+    }
+
+    // Transaction-bound reservations never expire here: their afterCompletion hook always settles
+    // them, and releasing one whose transaction later commits would oversell
+    @Scheduled(fixedDelayString = "${inventory.reservations.sweep-interval-ms:5000}")
+    public void releaseExpired() {
+        long now = System.currentTimeMillis();
+        for (Reservation reservation : open.values()) {
+            if (reservation.expiresAt < now) {
+                log.warn("Releasing reservation {} after {} ms", reservation.id, timeoutMillis);
+                release(reservation);
+            }
+        }
+    }
+
+    /**
+     * Runs before the web server starts: applies the decrements of orders that
+     * committed but were never flushed, so counters load from the true stock.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> pending = orderRepository.findStockPendingIds();
+        if (pending.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Integer> decrements = new HashMap<>();
+            for (Object[] row : orderRepository.sumQuantitiesByProduct(pending)) {
+                decrements.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+            productRepository.applyStockDecrements(decrements);
+            orderRepository.clearStockPending(pending);
+        });
+        log.info("Applied unflushed stock decrements of {} orders", pending.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // A product forgotten while stock was held gets a fresh counter that nobody reserves from
+    private Stock stock(Long productId) {
+        return stocks.computeIfAbsent(productId, id -> new Stock());
+    }
+
+    private void load(Collection<Long> productIds) {
+        List<Long> missing = productIds.stream().filter(id -> !stocks.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        loadLock.readLock().lock();
+        try {
+            for (Object[] row : productRepository.findStockByIdIn(missing)) {
+                stocks.putIfAbsent((Long) row[0], new Stock((Integer) row[1]));
+            }
+        } finally {
+            loadLock.readLock().unlock();
+        }
+        for (Long id : missing) {
+            // Unknown products get an empty counter; OrderService has already rejected them
+            stocks.putIfAbsent(id, new Stock());
+        }
+    }
+
+    /** Stock held for one checkout until its transaction completes. */
+    public static final class Reservation {
+        private final long id;
+        private final Map<Long, Integer> quantities;
+        private final long expiresAt;
+        private final Long shortProductId;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private volatile Long orderId;
+
+        private Reservation(long id, Map<Long, Integer> quantities, long expiresAt, Long shortProductId) {
+            this.id = id;
+            this.quantities = quantities;
+            this.expiresAt = expiresAt;
+            this.shortProductId = shortProductId;
+        }
+
+        private static Reservation shortOf(Long productId) {
+            return new Reservation(0, Map.of(), 0, productId);
+        }
+
+        /** False when a product did not have enough stock; nothing is held then. */
+        public boolean isHeld() {
+            return shortProductId == null;
+        }
+
+        public Long getShortProductId() {
+            return shortProductId;
+        }
+
+        /** Links the order that carries this stock once the transaction commits. */
+        public void attachOrder(Long orderId) {
+            this.orderId = orderId;
+        }
+    }
+
+    private record Committed(Long orderId, Map<Long, Integer> quantities) {
+    }
+
+    /** Counters for one product; available + held + unflushed equals products.stock. */
+    private static final class Stock {
+        private final AtomicInteger available;
+        private final AtomicInteger held = new AtomicInteger();
+        private final AtomicInteger unflushed = new AtomicInteger();
+
+        Stock() {
+            this(0);
+        }
+
+        Stock(int available) {
+            this.available = new AtomicInteger(available);
+        }
+
+        boolean tryTake(int quantity) {
+            int current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            held.addAndGet(quantity);
+            return true;
+        }
+
+        void giveBack(int quantity) {
+            held.addAndGet(-quantity);
+            available.addAndGet(quantity);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.grengcry.service;
+
+import com.grengcry.dto.response.OrderItemResponse;
+import com.grengcry.dto.response.OrderResponse;
+import com.grengcry.dto.response.OrderSummaryResponse;
+import com.grengcry.model.entity.ArchivedOrder;
+import com.grengcry.model.entity.ArchivedOrderItem;
+import com.grengcry.model.entity.Product;
+import com.grengcry.model.enums.OrderStatus;
+import com.grengcry.repository.ArchivePartitionRepository;
+import com.grengcry.repository.OrderArchiveRepository;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import com.grengcry.util.EntityMapper;
+import com.grengcry.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Moves delivered and cancelled orders older than the retention window from
+ * orders/order_items into orders_archive/order_items_archive, so the live
+ * tables and their indexes only hold recent and in-flight orders. Only final
+ * statuses are archived; nothing can change such an order any more.
+ *
+ * Each batch is copied and deleted in its own short transaction. Reads by id
+ * fall back to the archive through {@link #findOrder(Long)}.
+ *
+ * On MySQL the archive tables are partitioned by month (schema.sql). Every run
+ * first splits p_future so each month up to partitions-ahead-months from now
+ * has its own partition; that needs the ALTER privilege on both tables.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+    private static final Set<OrderStatus> FINAL = EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+    private static final List<String> PARTITIONED_TABLES = List.of("orders_archive", "order_items_archive");
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p(\\d{4})_(\\d{2})");
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${orders.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${orders.archive.partitions-ahead-months:3}")
+    private int partitionsAheadMonths;
+
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderArchiveService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /** Archives every eligible order; returns how many were moved. */
+    public int archive() {
+        if (!running.compareAndSet(false, true)) {
+            return 0; // a run is already in progress
+        }
+        try {
+            try {
+                maintainPartitions();
+            } catch (DataAccessException ex) {
+                // Rows still land in p_future; archiving itself is unaffected
+                log.warn("Could not add archive partitions", ex);
+            }
+            LocalDateTime cutoff = cutoff();
+            int moved = 0;
+            Integer count;
+            do {
+                count = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                moved += count;
+            } while (count != null && count == batchSize);
+            if (moved > 0) {
+                log.info("Archived {} orders created before {}", moved, cutoff);
+            }
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Adds the month partitions missing between the newest existing one and
+     * partitions-ahead-months from now. Tables that are not partitioned (created
+     * by Hibernate rather than schema.sql) are left alone.
+     */
+    public void maintainPartitions() {
+        YearMonth last = YearMonth.now().plusMonths(partitionsAheadMonths);
+        for (String table : PARTITIONED_TABLES) {
+            List<String> names = orderArchiveRepository.findPartitionNames(table);
+            if (!names.contains(ArchivePartitionRepository.FUTURE_PARTITION)) {
+                continue;
+            }
+            YearMonth next = names.stream()
+                    .map(MONTH_PARTITION::matcher)
+                    .filter(Matcher::matches)
+                    .map(m -> YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))))
+                    .max(Comparator.naturalOrder())
+                    .map(month -> month.plusMonths(1))
+                    .orElse(YearMonth.now());
+            List<YearMonth> months = new ArrayList<>();
+            for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+                months.add(month);
+            }
+            if (!months.isEmpty()) {
+                orderArchiveRepository.splitFuturePartition(table, months);
+                log.info("Added {} partitions to {} ({} to {})", months.size(), table, next, last);
+            }
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = orderArchiveRepository.findArchivableIds(cutoff, FINAL, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        orderArchiveRepository.copyOrders(ids, LocalDateTime.now());
+        orderArchiveRepository.copyItems(ids);
+        orderArchiveRepository.deleteLiveItems(ids);
+        orderArchiveRepository.deleteLiveOrders(ids);
+        return ids.size();
+    }
+
+    /** Orders created before this are archived once final. */
+    public LocalDateTime cutoff() {
+        return LocalDate.now().minusDays(retentionDays).atStartOfDay();
+    }
+
+    /** Archived part of a user's order history, newest first, with the same cursor contract as the live one. */
+    public List<OrderSummaryResponse> findHistory(Long userId, OrderStatus status, KeysetCursor after, Pageable pageable) {
+        if (after == null) {
+            return (status != null) ? orderArchiveRepository.findHistoryFirstByStatus(userId, status, pageable)
+                    : orderArchiveRepository.findHistoryFirst(userId, pageable);
+        }
+        return (status != null)
+                ? orderArchiveRepository.findHistoryAfterByStatus(userId, status, after.createdAt(), after.id(), pageable)
+                : orderArchiveRepository.findHistoryAfter(userId, after.createdAt(), after.id(), pageable);
+    }
+
+    public long countHistory(Long userId, OrderStatus status) {
+        return (status != null) ? orderArchiveRepository.countByUserIdAndStatus(userId, status)
+                : orderArchiveRepository.countByUserId(userId);
+    }
+
+    public List<Object[]> findHistoryLines(Collection<Long> orderIds) {
+        return orderArchiveRepository.findHistoryLines(orderIds);
+    }
+
+    /**
+     * Rebuilds the response of an archived order. User and products are read
+     * as they are now and left out if they have been deleted since.
+     */
+    public Optional<OrderResponse> findOrder(Long id) {
+        return orderArchiveRepository.findById(id).map(this::toResponse);
+    }
+
+    private OrderResponse toResponse(ArchivedOrder archived) {
+        List<ArchivedOrderItem> items = orderArchiveRepository.findItems(archived.getId());
+        Map<Long, Product> products = productRepository.findAllById(
+                        items.stream().map(ArchivedOrderItem::getProductId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        OrderResponse dto = new OrderResponse();
+        dto.setId(archived.getId());
+        userRepository.findById(archived.getUserId()).ifPresent(user -> dto.setUser(EntityMapper.toUserResponse(user)));
+        dto.setItems(items.stream().map(item -> {
+            Product product = products.get(item.getProductId());
+            return new OrderItemResponse(item.getId(),
+                    product != null ? EntityMapper.toProductResponse(product) : null,
+                    item.getQuantity(), item.getPrice());
+        }).collect(Collectors.toList()));
+        dto.setTotal(archived.getTotal());
+        dto.setStatus(archived.getStatus().name());
+        dto.setCreatedAt(archived.getCreatedAt());
+        dto.setUpdatedAt(archived.getUpdatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,262 @@
+package com.grengcry.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grengcry.model.enums.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Streams order lines straight from forward-only database cursors to the
+ * response. Rows are read as scalars, written immediately and never collected,
+ * so memory use is the same for a hundred rows or ten million.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String[] COLUMNS = {
+            "order_id", "created_at", "status", "user_id", "user_email", "order_total",
+            "item_id", "product_id", "product_name", "quantity", "unit_price"
+    };
+
+    private static final String LIVE_LINES =
+            "SELECT o.id, o.createdAt, o.status, u.id, u.email, o.total, i.id, p.id, p.name, i.quantity, i.price " +
+            "FROM OrderItem i JOIN i.order o JOIN o.user u JOIN i.product p WHERE 1 = 1";
+
+    // Users and products deleted since archiving leave their columns empty
+    private static final String ARCHIVED_LINES =
+            "SELECT a.id, a.createdAt, a.status, a.userId, u.email, a.total, i.id, i.productId, p.name, i.quantity, i.price " +
+            "FROM ArchivedOrderItem i JOIN ArchivedOrder a ON a.id = i.orderId " +
+            "LEFT JOIN User u ON u.id = a.userId LEFT JOIN Product p ON p.id = i.productId WHERE 1 = 1";
+
+    // created_at, order id, item id: the order both queries return their rows in
+    private static final Comparator<Object[]> EXPORT_ORDER = Comparator
+            .comparing((Object[] row) -> (LocalDateTime) row[1])
+            .thenComparing(row -> (Long) row[0])
+            .thenComparing(row -> (Long) row[6]);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Rows pulled from the server per round trip
+    @Value("${export.orders.fetch-size:1000}")
+    private int fetchSize;
+
+    // Rows between persistence-context clears and output flushes
+    @Value("${export.orders.flush-every:5000}")
+    private int flushEvery;
+
+    /**
+     * Writes every order line matching the filters, oldest first. {@code from}
+     * and {@code to} are inclusive calendar days; either may be null. Live and
+     * archived orders are read through two cursors and merged on the fly.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, OrderStatus status, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        Session session = entityManager.unwrap(Session.class);
+        Query<Object[]> live = query(session, LIVE_LINES, "o", status, from, to);
+        Query<Object[]> archived = query(session, ARCHIVED_LINES, "a", status, from, to);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = (format == Format.CSV) ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long count = 0;
+        try (ScrollableResults<Object[]> liveRows = live.scroll(ScrollMode.FORWARD_ONLY);
+             ScrollableResults<Object[]> archivedRows = archived.scroll(ScrollMode.FORWARD_ONLY)) {
+            rowWriter.start();
+            Object[] nextLive = next(liveRows);
+            Object[] nextArchived = next(archivedRows);
+            while (nextLive != null || nextArchived != null) {
+                if (nextArchived == null || (nextLive != null && EXPORT_ORDER.compare(nextLive, nextArchived) <= 0)) {
+                    rowWriter.write(nextLive);
+                    nextLive = next(liveRows);
+                } else {
+                    rowWriter.write(nextArchived);
+                    nextArchived = next(archivedRows);
+                }
+                if (++count % flushEvery == 0) {
+                    session.clear();
+                    rowWriter.flush();
+                }
+            }
+            rowWriter.finish();
+        }
+        writer.flush();
+        log.info("Exported {} order lines as {}", count, format);
+        return count;
+    }
+
+    private Query<Object[]> query(Session session, String select, String order, OrderStatus status,
+                                  LocalDate from, LocalDate to) {
+        StringBuilder hql = new StringBuilder(select);
+        if (status != null) {
+            hql.append(" AND ").append(order).append(".status = :status");
+        }
+        if (from != null) {
+            hql.append(" AND ").append(order).append(".createdAt >= :from");
+        }
+        if (to != null) {
+            hql.append(" AND ").append(order).append(".createdAt < :to");
+        }
+        // Live: matches idx_created_id / idx_status_created_id, so the cursor streams without a filesort.
+        // Archive: the created_at range prunes the month partitions.
+        hql.append(" ORDER BY ").append(order).append(".createdAt, ").append(order).append(".id, i.id");
+
+        Query<Object[]> query = session.createQuery(hql.toString(), Object[].class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (from != null) {
+            query.setParameter("from", from.atStartOfDay());
+        }
+        if (to != null) {
+            query.setParameter("to", to.plusDays(1).atStartOfDay());
+        }
+        return query;
+    }
+
+    private static Object[] next(ScrollableResults<Object[]> rows) {
+        return rows.next() ? rows.get() : null;
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(Object[] row) throws IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(format(row[i])));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < row.length; i++) {
+                Object value = row[i];
+                if (value == null) {
+                    generator.writeNullField(COLUMNS[i]);
+                } else if (value instanceof Number number && !(value instanceof BigDecimal)) {
+                    generator.writeNumberField(COLUMNS[i], number.longValue());
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumberField(COLUMNS[i], decimal);
+                } else {
+                    generator.writeStringField(COLUMNS[i], format(value));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (value instanceof LocalDateTime time) {
+            return time.toString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,182 @@
+package com.grengcry.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grengcry.dto.request.CreateOrderRequest;
+import com.grengcry.dto.response.OrderResponse;
+import com.grengcry.exception.BadRequestException;
+import com.grengcry.exception.ConflictException;
+import com.grengcry.model.entity.IdempotencyKey;
+import com.grengcry.repository.IdempotencyKeyRepository;
+import com.grengcry.util.BoundedCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes order creation safe to retry. The first request with a given
+ * Idempotency-Key creates the order and stores the key next to the order id in
+ * the same transaction; repeats are answered from a bounded cache or the
+ * stored key without running checkout again. A repeat that arrives while the
+ * first request is still running waits for its result.
+ */
+@Service
+public class OrderIdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedCache<String, Stored> completed;
+    private final Map<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    @Value("${idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    public OrderIdempotencyService(PlatformTransactionManager transactionManager,
+                                   @Value("${idempotency.cache.max-size:10000}") int maxSize,
+                                   @Value("${idempotency.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completed = new BoundedCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    public record Result(OrderResponse order, boolean replayed) {
+    }
+
+    public Result createOrder(Long userId, String key, CreateOrderRequest request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = userId + ":" + key;
+        String requestHash = hash(request);
+
+        Stored cached = completed.get(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            return replay(await(running), requestHash);
+        }
+
+        try {
+            Stored stored = findStored(userId, key);
+            boolean created = false;
+            if (stored == null) {
+                try {
+                    stored = transactionTemplate.execute(status -> createAndStore(userId, key, requestHash, request));
+                    created = true;
+                } catch (DataIntegrityViolationException ex) {
+                    // Another instance stored the same key first; our order was rolled back, answer with theirs
+                    stored = findStored(userId, key);
+                    if (stored == null) {
+                        throw ex;
+                    }
+                }
+            }
+            completed.put(cacheKey, stored);
+            mine.complete(stored);
+            return created ? new Result(stored.order(), false) : replay(stored, requestHash);
+        } catch (RuntimeException ex) {
+            // Nothing was committed; waiting duplicates fail the same way and a later retry runs afresh
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    // Runs in one transaction so the order and its key commit or roll back together
+    private Stored createAndStore(Long userId, String key, String requestHash, CreateOrderRequest request) {
+        OrderResponse order = orderService.createOrder(userId, request);
+        IdempotencyKey record = new IdempotencyKey();
+        record.setUserId(userId);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(requestHash);
+        record.setOrderId(order.getId());
+        idempotencyKeyRepository.saveAndFlush(record);
+        return new Stored(requestHash, order);
+    }
+
+    private Stored findStored(Long userId, String key) {
+        return idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key)
+                .map(k -> new Stored(k.getRequestHash(), orderService.getOrderById(k.getOrderId())))
+                .orElse(null);
+    }
+
+    private Stored await(CompletableFuture<Stored> running) {
+        try {
+            return running.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Result replay(Stored stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new ConflictException("Idempotency-Key was already used with a different request");
+        }
+        return new Result(stored.order(), true);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (removed > 0) {
+            log.info("Removed {} idempotency keys older than {} hours", removed, retentionHours);
+        }
+    }
+
+    private String hash(CreateOrderRequest request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Could not fingerprint order request", ex);
+        }
+    }
+
+    private record Stored(String requestHash, OrderResponse order) {
+    }
+}
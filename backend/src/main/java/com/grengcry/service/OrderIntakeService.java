@@ -0,0 +1,317 @@
+package com.grengcry.service;
+
+import com.grengcry.dto.request.CreateOrderRequest;
+import com.grengcry.dto.response.OrderIntakeResponse;
+import com.grengcry.dto.response.OrderResponse;
+import com.grengcry.dto.response.ProductResponse;
+import com.grengcry.event.OrderEventOutbox;
+import com.grengcry.exception.ApplicationException;
+import com.grengcry.exception.BadRequestException;
+import com.grengcry.exception.ResourceNotFoundException;
+import com.grengcry.exception.ServiceUnavailableException;
+import com.grengcry.model.entity.Order;
+import com.grengcry.model.entity.Product;
+import com.grengcry.model.entity.User;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import com.grengcry.util.BoundedCache;
+import com.grengcry.util.EntityMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous order intake. Requests are validated, placed on a bounded
+ * in-memory queue and answered with a tracking id right away. A single writer
+ * thread drains the queue in groups and persists each group in one
+ * transaction: users and products are loaded once per group, product rows are
+ * locked once, and stock updates and inserts go out as JDBC batches. If a
+ * group fails as a whole its orders are retried one by one through
+ * OrderService so one bad order cannot sink the others.
+ *
+ * Queued orders live only in memory until written; a crash loses what was
+ * still queued, which is why this mode is opt-in.
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    public enum Status { QUEUED, CREATED, REJECTED }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private InventoryReservationService inventoryReservations;
+
+    @Autowired
+    private OrderEventOutbox orderEvents;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${orders.intake.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.intake.max-batch:200}")
+    private int maxBatch;
+
+    private final BlockingQueue<Intake> queue;
+    private final BoundedCache<String, Ticket> tickets;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderIntakeService(PlatformTransactionManager transactionManager,
+                              @Value("${orders.intake.queue-capacity:10000}") int queueCapacity,
+                              @Value("${orders.intake.tickets.max-size:100000}") int maxTickets,
+                              @Value("${orders.intake.tickets.ttl-seconds:3600}") long ticketTtlSeconds) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.tickets = new BoundedCache<>(maxTickets, ticketTtlSeconds * 1000);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        // The writer finishes whatever is still queued before it exits
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validates the order and queues it. Product ids are checked against the
+     * product cache so acceptance rarely touches the database; stock is only
+     * checked when the order is written.
+     */
+    public OrderIntakeResponse submit(Long userId, CreateOrderRequest request) {
+        if (!enabled) {
+            throw new BadRequestException("Asynchronous order intake is not enabled");
+        }
+        Map<Long, Integer> quantities = OrderService.mergeLines(request);
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        Set<Long> known = productCache.getProducts(productIds, ids -> productRepository.findAllById(ids).stream()
+                        .map(EntityMapper::toProductResponse)
+                        .collect(Collectors.toList()))
+                .stream().map(ProductResponse::getId).collect(Collectors.toSet());
+        for (Long productId : productIds) {
+            if (!known.contains(productId)) {
+                throw new ResourceNotFoundException("Product not found", "id", productId);
+            }
+        }
+
+        Intake intake = new Intake(UUID.randomUUID().toString(), userId, request, quantities);
+        tickets.put(intake.trackingId(), new Ticket(userId, Status.QUEUED, null, null));
+        if (!queue.offer(intake)) {
+            tickets.invalidate(intake.trackingId());
+            throw new ServiceUnavailableException("Order intake is at capacity, please retry", 1);
+        }
+        return new OrderIntakeResponse(intake.trackingId(), Status.QUEUED.name(), null, null);
+    }
+
+    /** Returns the intake state for its owner (or an admin); unknown and foreign ids look the same. */
+    public OrderIntakeResponse getStatus(String trackingId, Long userId, boolean admin) {
+        Ticket ticket = tickets.get(trackingId);
+        if (ticket == null || (!admin && !ticket.userId().equals(userId))) {
+            throw new ResourceNotFoundException("Order intake not found", "trackingId", trackingId);
+        }
+        return new OrderIntakeResponse(trackingId, ticket.status().name(), ticket.orderId(), ticket.message());
+    }
+
+    private void drain() {
+        List<Intake> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Intake first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                // Shutdown signal; the loop condition decides whether anything is left to write
+            } catch (RuntimeException ex) {
+                log.error("Order intake writer failed on a batch of {}", batch.size(), ex);
+                // Intakes that already have an outcome keep it; an order recorded as CREATED is committed
+                batch.stream()
+                        .filter(intake -> isQueued(intake.trackingId()))
+                        .forEach(intake -> record(new Outcome(intake, Status.REJECTED, null, "Order could not be saved")));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Intake> batch) {
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> writeGroup(batch));
+        } catch (RuntimeException ex) {
+            log.warn("Grouped write of {} orders failed, writing them one by one", batch.size(), ex);
+            outcomes = batch.stream().map(this::writeSingle).collect(Collectors.toList());
+        }
+
+        Set<Long> touched = new HashSet<>();
+        for (Outcome outcome : outcomes) {
+            record(outcome);
+            if (outcome.status() == Status.CREATED) {
+                touched.addAll(outcome.intake().quantities().keySet());
+            }
+        }
+        if (!touched.isEmpty()) {
+            try {
+                productCache.productsChanged(touched);
+            } catch (RuntimeException ex) {
+                // The orders are committed; a stale stock figure expires with the cache TTL
+                log.error("Could not invalidate cached products after an intake batch", ex);
+            }
+        }
+    }
+
+    private boolean isQueued(String trackingId) {
+        Ticket ticket = tickets.get(trackingId);
+        return ticket != null && ticket.status() == Status.QUEUED;
+    }
+
+    private List<Outcome> writeGroup(List<Intake> batch) {
+        Set<Long> userIds = batch.stream().map(Intake::userId).collect(Collectors.toSet());
+        Set<Long> productIds = batch.stream().flatMap(i -> i.quantities().keySet().stream()).collect(Collectors.toSet());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        // With the reservation engine stock lives in memory; otherwise lock the rows once for the whole group
+        boolean reserve = inventoryReservations.isEnabled();
+        List<Product> loaded = reserve ? productRepository.findAllById(productIds) : productRepository.findAllForUpdate(productIds);
+        Map<Long, Product> products = loaded.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        List<Order> created = new ArrayList<>();
+        for (Intake intake : batch) {
+            User user = users.get(intake.userId());
+            if (user == null) {
+                outcomes.add(new Outcome(intake, Status.REJECTED, null, "User not found"));
+                continue;
+            }
+            Long missing = intake.quantities().keySet().stream()
+                    .filter(id -> !products.containsKey(id)).findFirst().orElse(null);
+            if (missing != null) {
+                outcomes.add(new Outcome(intake, Status.REJECTED, null, "Product not found: " + missing));
+                continue;
+            }
+
+            InventoryReservationService.Reservation reservation = null;
+            if (reserve) {
+                reservation = inventoryReservations.reserve(intake.quantities());
+                if (!reservation.isHeld()) {
+                    outcomes.add(rejectedForStock(intake, products.get(reservation.getShortProductId())));
+                    continue;
+                }
+            } else {
+                Map.Entry<Long, Integer> shortLine = intake.quantities().entrySet().stream()
+                        .filter(line -> products.get(line.getKey()).getStock() < line.getValue())
+                        .findFirst().orElse(null);
+                if (shortLine != null) {
+                    outcomes.add(rejectedForStock(intake, products.get(shortLine.getKey())));
+                    continue;
+                }
+                // Rows are locked, so adjusting the managed entities is safe; dirty checking batches the UPDATEs
+                intake.quantities().forEach((id, quantity) -> {
+                    Product product = products.get(id);
+                    product.setStock(product.getStock() - quantity);
+                });
+            }
+
+            Order order = OrderService.assembleOrder(user, intake.quantities(), products);
+            order.setStockPending(reservation != null);
+            entityManager.persist(order);
+            if (reservation != null) {
+                reservation.attachOrder(order.getId());
+            }
+            created.add(order);
+            outcomes.add(new Outcome(intake, Status.CREATED, order.getId(), null));
+        }
+        orderEvents.orderCreated(created);
+        entityManager.flush();
+        return outcomes;
+    }
+
+    private Outcome writeSingle(Intake intake) {
+        try {
+            OrderResponse order = orderService.createOrder(intake.userId(), intake.request());
+            return new Outcome(intake, Status.CREATED, order.getId(), null);
+        } catch (ApplicationException ex) {
+            return new Outcome(intake, Status.REJECTED, null, ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.error("Queued order {} could not be saved", intake.trackingId(), ex);
+            return new Outcome(intake, Status.REJECTED, null, "Order could not be saved");
+        }
+    }
+
+    private static Outcome rejectedForStock(Intake intake, Product product) {
+        return new Outcome(intake, Status.REJECTED, null, "Not enough stock for product: " + product.getName());
+    }
+
+    private void record(Outcome outcome) {
+        tickets.put(outcome.intake().trackingId(),
+                new Ticket(outcome.intake().userId(), outcome.status(), outcome.orderId(), outcome.message()));
+    }
+
+    private record Intake(String trackingId, Long userId, CreateOrderRequest request, Map<Long, Integer> quantities) {
+    }
+
+    private record Ticket(Long userId, Status status, Long orderId, String message) {
+    }
+
+    private record Outcome(Intake intake, Status status, Long orderId, String message) {
+    }
+}
@@ -1,9 +1,14 @@
 package com.grengcry.service;
 
+import com.grengcry.dto.request.BulkOrderStatusRequest;
 import com.grengcry.dto.request.CreateOrderRequest;
 import com.grengcry.dto.request.UpdateOrderStatusRequest;
+import com.grengcry.dto.response.BulkOrderStatusResponse;
 import com.grengcry.dto.response.OrderResponse;
+import com.grengcry.dto.response.OrderSummaryResponse;
 import com.grengcry.dto.response.PagedResponse;
+import com.grengcry.event.OrderEvent;
+import com.grengcry.event.OrderEventOutbox;
 import com.grengcry.exception.BadRequestException;
 import com.grengcry.exception.ResourceNotFoundException;
 import com.grengcry.model.entity.*;
@@ -12,17 +17,37 @@ import com.grengcry.repository.OrderRepository;
 import com.grengcry.repository.ProductRepository;
 import com.grengcry.repository.UserRepository;
 import com.grengcry.util.EntityMapper;
+import com.grengcry.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
@@ -33,23 +58,129 @@ public class OrderService {
         private UserRepository userRepository;
         @Autowired
         private ProductRepository productRepository;
+        @Autowired
+        private ProductCache productCache;
+        @Autowired
+        private InventoryReservationService inventoryReservations;
+        @Autowired
+        private OrderEventOutbox orderEvents;
+        @Autowired
+        private OrderArchiveService orderArchive;
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Value("${orders.bulk-status.max-orders:1000}")
+        private int bulkStatusMaxOrders;
 
-        public PagedResponse<OrderResponse> getOrders(OrderStatus status, Integer page, Integer limit) {
+        public PagedResponse<OrderResponse> getOrders(OrderStatus status, Integer page, Integer limit, boolean withTotal) {
                 Pageable pageable = PageRequest.of(page - 1, limit);
+                if (!withTotal) {
+                        Slice<Order> orderSlice = (status != null) ? orderRepository.findSliceByStatus(status, pageable)
+                                        : orderRepository.findSliceBy(pageable);
+                        List<OrderResponse> orders = withDetails(orderSlice.getContent()).stream()
+                                        .map(EntityMapper::toOrderResponse)
+                                        .collect(Collectors.toList());
+                        return PagedResponse.ofSlice(orders, page, orderSlice.hasNext());
+                }
+
                 Page<Order> orderPage = (status != null) ? orderRepository.findByStatus(status, pageable)
                                 : orderRepository.findAll(pageable);
 
-                List<OrderResponse> orders = orderPage.getContent().stream()
+                List<OrderResponse> orders = withDetails(orderPage.getContent()).stream()
                                 .map(EntityMapper::toOrderResponse)
                                 .collect(Collectors.toList());
 
                 return new PagedResponse<>(orders, orderPage.getTotalElements(), page, orderPage.getTotalPages());
         }
 
+        public PagedResponse<OrderResponse> getOrdersAfter(OrderStatus status, String cursor, Integer limit, boolean withTotal) {
+                KeysetCursor.checkLimit(limit);
+                KeysetCursor after = KeysetCursor.decode(cursor);
+                // Fetch one extra row to find out whether there is a next page
+                Pageable pageable = PageRequest.of(0, limit + 1);
+                List<Order> rows;
+                if (after == null) {
+                        rows = (status != null) ? orderRepository.findByStatusOrderByCreatedAtDescIdDesc(status, pageable)
+                                        : orderRepository.findByOrderByCreatedAtDescIdDesc(pageable);
+                } else {
+                        rows = (status != null)
+                                        ? orderRepository.findPageAfterByStatus(status, after.createdAt(), after.id(), pageable)
+                                        : orderRepository.findPageAfter(after.createdAt(), after.id(), pageable);
+                }
+                Long total = null;
+                if (withTotal) {
+                        total = (status != null) ? orderRepository.countByStatus(status) : orderRepository.count();
+                }
+                return KeysetCursor.toPage(withDetails(rows), limit, total, EntityMapper::toOrderResponse,
+                                Order::getCreatedAt, Order::getId);
+        }
+
+        // The signed-in user's own orders, newest first. Two queries per page: the history rows
+        // (limit + 1 to detect a next page) and the item lines of the rows returned. Pages that reach
+        // back past the archive cutoff also read the archived history and merge it in.
+        public PagedResponse<OrderSummaryResponse> getUserOrders(Long userId, OrderStatus status, String cursor,
+                                                                 Integer limit, boolean withTotal) {
+                KeysetCursor.checkLimit(limit);
+                KeysetCursor after = KeysetCursor.decode(cursor);
+                Pageable pageable = PageRequest.of(0, limit + 1);
+                List<OrderSummaryResponse> rows;
+                if (after == null) {
+                        rows = (status != null) ? orderRepository.findHistoryFirstByStatus(userId, status, pageable)
+                                        : orderRepository.findHistoryFirst(userId, pageable);
+                } else {
+                        rows = (status != null)
+                                        ? orderRepository.findHistoryAfterByStatus(userId, status, after.createdAt(), after.id(), pageable)
+                                        : orderRepository.findHistoryAfter(userId, after.createdAt(), after.id(), pageable);
+                }
+                // Archived orders are all older than the cutoff, so a full page of newer live rows cannot miss any
+                Set<Long> archivedIds = Set.of();
+                if (rows.size() <= limit || rows.get(rows.size() - 1).getCreatedAt().isBefore(orderArchive.cutoff())) {
+                        List<OrderSummaryResponse> archived = orderArchive.findHistory(userId, status, after, pageable);
+                        if (!archived.isEmpty()) {
+                                archivedIds = archived.stream().map(OrderSummaryResponse::getId).collect(Collectors.toSet());
+                                rows = Stream.concat(rows.stream(), archived.stream())
+                                                .sorted(Comparator.comparing(OrderSummaryResponse::getCreatedAt)
+                                                                .thenComparing(OrderSummaryResponse::getId).reversed())
+                                                .limit(limit + 1L)
+                                                .collect(Collectors.toList());
+                        }
+                }
+                Long total = null;
+                if (withTotal) {
+                        total = ((status != null) ? orderRepository.countByUserIdAndStatus(userId, status)
+                                        : orderRepository.countByUserId(userId)) + orderArchive.countHistory(userId, status);
+                }
+                PagedResponse<OrderSummaryResponse> page = KeysetCursor.toPage(rows, limit, total, Function.identity(),
+                                OrderSummaryResponse::getCreatedAt, OrderSummaryResponse::getId);
+
+                if (!page.getData().isEmpty()) {
+                        Map<Long, OrderSummaryResponse> byId = page.getData().stream()
+                                        .collect(Collectors.toMap(OrderSummaryResponse::getId, Function.identity()));
+                        Set<Long> live = new HashSet<>(byId.keySet());
+                        live.removeAll(archivedIds);
+                        Set<Long> old = new HashSet<>(byId.keySet());
+                        old.retainAll(archivedIds);
+                        List<Object[]> lines = new ArrayList<>();
+                        if (!live.isEmpty()) {
+                                lines.addAll(orderRepository.findHistoryLines(live));
+                        }
+                        if (!old.isEmpty()) {
+                                lines.addAll(orderArchive.findHistoryLines(old));
+                        }
+                        for (Object[] row : lines) {
+                                byId.get((Long) row[0]).getItems().add(new OrderSummaryResponse.Line((Long) row[1],
+                                                (String) row[2], (String) row[3], (Integer) row[4], (BigDecimal) row[5]));
+                        }
+                }
+                return page;
+        }
+
+        // Old delivered and cancelled orders live in the archive tables; one extra lookup finds them there
         public OrderResponse getOrderById(Long id) {
-                Order order = orderRepository.findById(id)
+                return orderRepository.findWithDetailsById(id)
+                                .map(EntityMapper::toOrderResponse)
+                                .or(() -> orderArchive.findOrder(id))
                                 .orElseThrow(() -> new ResourceNotFoundException("Order not found", "id", id));
-                return EntityMapper.toOrderResponse(order);
         }
 
         @Transactional
@@ -57,49 +188,235 @@ public class OrderService {
                 User user = userRepository.findById(userId)
                                 .orElseThrow(() -> new ResourceNotFoundException("User not found", "id", userId));
 
+                Map<Long, Integer> quantities = mergeLines(request);
+
+                Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                                .collect(Collectors.toMap(Product::getId, Function.identity()));
+                for (Long productId : quantities.keySet()) {
+                        if (!products.containsKey(productId)) {
+                                throw new ResourceNotFoundException("Product not found", "id", productId);
+                        }
+                }
+
+                InventoryReservationService.Reservation reservation = null;
+                if (inventoryReservations.isEnabled()) {
+                        // Flash-sale mode: stock comes from in-memory counters and is written back later;
+                        // the reservation is released automatically if this transaction rolls back
+                        reservation = inventoryReservations.reserve(quantities);
+                        if (!reservation.isHeld()) {
+                                throw new BadRequestException("Not enough stock for product: "
+                                                + products.get(reservation.getShortProductId()).getName());
+                        }
+                } else {
+                        // The stock check and the decrement are one conditional UPDATE per product, sent as a
+                        // single batch; a line without enough stock throws and rolls back the whole order
+                        List<Long> insufficient = productRepository.decrementStock(quantities);
+                        if (!insufficient.isEmpty()) {
+                                throw new BadRequestException("Not enough stock for product: "
+                                                + products.get(insufficient.get(0)).getName());
+                        }
+                }
+
+                Order order = assembleOrder(user, quantities, products);
+                for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                        // Mirror the database change in the response without letting Hibernate write it again
+                        Product product = products.get(line.getKey());
+                        entityManager.detach(product);
+                        product.setStock(product.getStock() - line.getValue());
+                }
+                order.setStockPending(reservation != null);
+
+                Order savedOrder = orderRepository.save(order);
+                if (reservation != null) {
+                        reservation.attachOrder(savedOrder.getId());
+                }
+                orderEvents.orderCreated(List.of(savedOrder));
+                // Stock changed for every ordered product
+                productCache.productsChanged(quantities.keySet());
+                return EntityMapper.toOrderResponse(savedOrder);
+        }
+
+        @Transactional
+        public OrderResponse updateOrderStatus(Long orderId, UpdateOrderStatusRequest request) {
+                OrderStatus target = request.getStatus();
+                if (target == null) {
+                        throw new BadRequestException("Status is required");
+                }
+                // Lock the row first so two concurrent cancels cannot both restock
+                if (orderRepository.lockStatusByIdIn(List.of(orderId)).isEmpty()) {
+                        throw new ResourceNotFoundException("Order not found", "id", orderId);
+                }
+                Order order = orderRepository.findWithDetailsById(orderId)
+                                .orElseThrow(() -> new ResourceNotFoundException("Order not found", "id", orderId));
+                if (order.getStatus() != target) {
+                        checkTransition(order.getStatus(), target);
+                        List<OrderEvent.Line> lines = null;
+                        if (target == OrderStatus.CANCELLED) {
+                                lines = order.getItems().stream()
+                                                .map(i -> new OrderEvent.Line(i.getProduct().getId(), i.getQuantity(), i.getPrice()))
+                                                .collect(Collectors.toList());
+                                restock(lines);
+                        }
+                        orderEvents.statusChanged(List.of(new OrderEventOutbox.StatusChange(order.getId(), order.getUser().getId(),
+                                        order.getStatus(), target, order.getTotal(), order.getCreatedAt(), lines)));
+                        order.setStatus(target);
+                }
+                Order updatedOrder = orderRepository.save(order);
+                return EntityMapper.toOrderResponse(updatedOrder);
+        }
+
+        /**
+         * Moves many orders to one status in a single transaction: the rows are
+         * locked, checked against the allowed transitions and changed with one
+         * UPDATE. Orders that cannot move are reported and left alone; they do
+         * not fail the rest of the batch.
+         */
+        @Transactional
+        public BulkOrderStatusResponse updateOrderStatuses(BulkOrderStatusRequest request) {
+                List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()));
+                if (ids.size() > bulkStatusMaxOrders) {
+                        throw new BadRequestException("At most " + bulkStatusMaxOrders + " orders can be updated at once");
+                }
+                OrderStatus target = request.getStatus();
+
+                Map<Long, OrderStatus> current = new HashMap<>();
+                Map<Long, Object[]> rows = new HashMap<>();
+                for (Object[] row : orderRepository.lockStatusByIdIn(ids)) {
+                        Long id = ((Number) row[0]).longValue();
+                        current.put(id, OrderStatus.valueOf(row[1].toString()));
+                        rows.put(id, row);
+                }
+
+                BulkOrderStatusResponse response = new BulkOrderStatusResponse();
+                response.setStatus(target);
+                List<Long> moving = new ArrayList<>();
+                Set<OrderStatus> from = EnumSet.noneOf(OrderStatus.class);
+                for (Long id : ids) {
+                        OrderStatus status = current.get(id);
+                        BulkOrderStatusResponse.Outcome outcome;
+                        if (status == null) {
+                                outcome = BulkOrderStatusResponse.Outcome.NOT_FOUND;
+                        } else if (status == target) {
+                                outcome = BulkOrderStatusResponse.Outcome.UNCHANGED;
+                        } else if (status.canTransitionTo(target)) {
+                                outcome = BulkOrderStatusResponse.Outcome.UPDATED;
+                                moving.add(id);
+                                from.add(status);
+                        } else {
+                                outcome = BulkOrderStatusResponse.Outcome.ILLEGAL_TRANSITION;
+                        }
+                        response.getResults().add(new BulkOrderStatusResponse.Result(id, outcome, status));
+                }
+                response.setUpdated(moving.size());
+                response.setRejected((int) response.getResults().stream()
+                                .filter(r -> r.getOutcome() == BulkOrderStatusResponse.Outcome.NOT_FOUND
+                                                || r.getOutcome() == BulkOrderStatusResponse.Outcome.ILLEGAL_TRANSITION)
+                                .count());
+
+                if (!moving.isEmpty()) {
+                        // Cancellations carry their lines: they are restocked and listeners can reverse the sale
+                        Map<Long, List<OrderEvent.Line>> lines = new HashMap<>();
+                        if (target == OrderStatus.CANCELLED) {
+                                for (Object[] row : orderRepository.findItemLinesByOrderIdIn(moving)) {
+                                        lines.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                                                        .add(new OrderEvent.Line((Long) row[1], (Integer) row[2], (BigDecimal) row[3]));
+                                }
+                                restock(lines.values().stream().flatMap(List::stream).collect(Collectors.toList()));
+                        }
+                        orderRepository.updateStatus(moving, from, target, LocalDateTime.now());
+
+                        List<OrderEventOutbox.StatusChange> changes = new ArrayList<>(moving.size());
+                        for (Long id : moving) {
+                                Object[] row = rows.get(id);
+                                changes.add(new OrderEventOutbox.StatusChange(id, ((Number) row[2]).longValue(), current.get(id),
+                                                target, (BigDecimal) row[3], toLocalDateTime(row[4]), lines.get(id)));
+                        }
+                        orderEvents.statusChanged(changes);
+                }
+                return response;
+        }
+
+        // Native queries hand back java.sql.Timestamp or LocalDateTime depending on the driver
+        private static LocalDateTime toLocalDateTime(Object value) {
+                return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+        }
+
+        private static void checkTransition(OrderStatus from, OrderStatus to) {
+                if (!from.canTransitionTo(to)) {
+                        throw new BadRequestException("Cannot change order status from " + from + " to " + to);
+                }
+        }
+
+        // Cancelled orders give their stock back. Orders still flagged stockPending are covered as well:
+        // their decrement reaches products.stock with the next reservation flush, which nets this out.
+        private void restock(List<OrderEvent.Line> lines) {
+                if (lines.isEmpty()) {
+                        return;
+                }
+                Map<Long, Integer> quantities = new HashMap<>();
+                lines.forEach(line -> quantities.merge(line.productId(), line.quantity(), Integer::sum));
+                productRepository.applyStockIncrements(quantities);
+                productCache.productsChanged(quantities.keySet());
+                afterCommit(() -> quantities.keySet().forEach(inventoryReservations::refresh));
+        }
+
+        private static void afterCommit(Runnable action) {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                                @Override
+                                public void afterCommit() {
+                                        action.run();
+                                }
+                        });
+                } else {
+                        action.run();
+                }
+        }
+
+        // Reloads a page of orders with their user, items and products in one query, keeping the page order
+        private List<Order> withDetails(List<Order> page) {
+                if (page.isEmpty()) {
+                        return page;
+                }
+                Map<Long, Order> loaded = orderRepository.findWithDetailsByIdIn(
+                                page.stream().map(Order::getId).collect(Collectors.toList())).stream()
+                                .collect(Collectors.toMap(Order::getId, Function.identity()));
+                return page.stream().map(o -> loaded.get(o.getId())).filter(Objects::nonNull).collect(Collectors.toList());
+        }
+
+        // Merges repeated lines for the same product so each row is checked and decremented once
+        static Map<Long, Integer> mergeLines(CreateOrderRequest request) {
+                Map<Long, Integer> quantities = new LinkedHashMap<>();
+                for (CreateOrderRequest.OrderProductRequest productRequest : request.getProducts()) {
+                        quantities.merge(productRequest.getProductId(), productRequest.getQuantity(), Integer::sum);
+                }
+                return quantities;
+        }
+
+        // Builds a new PENDING order priced from the given products; stock is the caller's business
+        static Order assembleOrder(User user, Map<Long, Integer> quantities, Map<Long, Product> products) {
                 Order order = new Order();
                 order.setUser(user);
 
                 List<OrderItem> orderItems = new ArrayList<>();
                 BigDecimal total = BigDecimal.ZERO;
 
-                for (CreateOrderRequest.OrderProductRequest productRequest : request.getProducts()) {
-                        Product product = productRepository.findById(productRequest.getProductId())
-                                        .orElseThrow(() -> new ResourceNotFoundException("Product not found", "id",
-                                                        productRequest.getProductId()));
-
-                        if (product.getStock() < productRequest.getQuantity()) {
-                                throw new BadRequestException("Not enough stock for product: " + product.getName());
-                        }
+                for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                        Product product = products.get(line.getKey());
 
                         OrderItem orderItem = new OrderItem();
                         orderItem.setOrder(order);
                         orderItem.setProduct(product);
-                        orderItem.setQuantity(productRequest.getQuantity());
+                        orderItem.setQuantity(line.getValue());
                         orderItem.setPrice(product.getPrice());
                         orderItems.add(orderItem);
 
-                        total = total.add(
-                                        product.getPrice().multiply(BigDecimal.valueOf(productRequest.getQuantity())));
-
-                        product.setStock(product.getStock() - productRequest.getQuantity());
-                        productRepository.save(product);
+                        total = total.add(product.getPrice().multiply(BigDecimal.valueOf(line.getValue())));
                 }
 
                 order.setItems(orderItems);
                 order.setTotal(total);
                 order.setStatus(OrderStatus.PENDING);
-
-                Order savedOrder = orderRepository.save(order);
-                return EntityMapper.toOrderResponse(savedOrder);
-        }
-
-        @Transactional
-        public OrderResponse updateOrderStatus(Long orderId, UpdateOrderStatusRequest request) {
-                Order order = orderRepository.findById(orderId)
-                                .orElseThrow(() -> new ResourceNotFoundException("Order not found", "id", orderId));
-                order.setStatus(request.getStatus());
-                Order updatedOrder = orderRepository.save(order);
-                return EntityMapper.toOrderResponse(updatedOrder);
+                return order;
         }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.grengcry.service;
+
+import com.grengcry.dto.response.PagedResponse;
+import com.grengcry.dto.response.ProductResponse;
+import com.grengcry.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Holds ready-to-serve product DTOs and listing pages so catalog reads skip the
+ * repository and the mapper. Writers call the invalidate methods after changing
+ * products; only the entries that can contain the changed product are dropped.
+ */
+@Component
+public class ProductCache {
+
+    private final BoundedCache<Long, ProductResponse> products;
+    private final BoundedCache<String, PagedResponse<ProductResponse>> pages;
+
+    // Bumped on every catalog change; listing ETags are derived from it. Seeded with the
+    // start time so a restarted node never reissues an ETag from its previous life.
+    private final AtomicLong catalogVersion = new AtomicLong(System.currentTimeMillis());
+
+    public ProductCache(@Value("${cache.products.max-size:2000}") int maxProducts,
+                        @Value("${cache.products.max-pages:500}") int maxPages,
+                        @Value("${cache.products.ttl-seconds:300}") long ttlSeconds) {
+        this.products = new BoundedCache<>(maxProducts, ttlSeconds * 1000);
+        this.pages = new BoundedCache<>(maxPages, ttlSeconds * 1000);
+    }
+
+    public ProductResponse getProduct(Long id, Function<Long, ProductResponse> loader) {
+        return products.getOrLoad(id, loader);
+    }
+
+    /** Returns the cached product without loading it, or null. */
+    public ProductResponse peekProduct(Long id) {
+        return products.get(id);
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Resolves several products at once, loading all cache misses with a single
+     * call to the loader. The result keeps the order of {@code ids}.
+     */
+    public List<ProductResponse> getProducts(List<Long> ids, Function<List<Long>, List<ProductResponse>> loader) {
+        Map<Long, ProductResponse> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            ProductResponse cached = products.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = products.generation();
+            for (ProductResponse loaded : loader.apply(missing)) {
+                products.putIfUnchanged(loaded.getId(), loaded, generation);
+                found.put(loaded.getId(), loaded);
+            }
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    public PagedResponse<ProductResponse> getPage(String key, Supplier<PagedResponse<ProductResponse>> loader) {
+        return pages.getOrLoad(key, k -> loader.get());
+    }
+
+    // A new product shifts totals and page boundaries, so every listing page is stale
+    public void productCreated() {
+        invalidate(pages::invalidateAll);
+    }
+
+    // Field changes only affect the product itself and the pages that show it
+    public void productChanged(Long id) {
+        invalidate(() -> {
+            products.invalidate(id);
+            pages.invalidateIf((key, page) -> containsProduct(page, id));
+        });
+    }
+
+    public void productsChanged(Collection<Long> ids) {
+        invalidate(() -> {
+            ids.forEach(products::invalidate);
+            pages.invalidateIf((key, page) -> page.getData().stream().anyMatch(p -> ids.contains(p.getId())));
+        });
+    }
+
+    // Removing a product changes totals and page boundaries as well
+    public void productDeleted(Long id) {
+        invalidate(() -> {
+            products.invalidate(id);
+            pages.invalidateAll();
+        });
+    }
+
+    // Bulk writes touch too many products to track individually
+    public void catalogReplaced() {
+        invalidate(() -> {
+            products.invalidateAll();
+            pages.invalidateAll();
+        });
+    }
+
+    public Map<String, BoundedCache.Stats> stats() {
+        Map<String, BoundedCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("products", products.stats());
+        stats.put("pages", pages.stats());
+        return stats;
+    }
+
+    /**
+     * Invalidates right away and once more after the surrounding transaction
+     * commits, so a reader that reloaded the old row in between does not leave
+     * a stale entry behind.
+     */
+    private void invalidate(Runnable action) {
+        action.run();
+        catalogVersion.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                    catalogVersion.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private static boolean containsProduct(PagedResponse<ProductResponse> page, Long id) {
+        return page.getData().stream().anyMatch(p -> id.equals(p.getId()));
+    }
+}
@@ -0,0 +1,353 @@
+package com.grengcry.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.grengcry.dto.request.ProductImportRow;
+import com.grengcry.dto.response.ImportSummaryResponse;
+import com.grengcry.exception.BadRequestException;
+import com.grengcry.model.entity.Product;
+import com.grengcry.search.ProductSearchIndex;
+import com.grengcry.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product upsert. The body is parsed one record at a time and written in
+ * batches, each in its own transaction, so neither the file nor the persistence
+ * context grows with the size of the import. When a batch fails it is replayed
+ * row by row to find the offending rows; the rest of the batch still lands.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    public enum Format { CSV, JSON, NDJSON }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InventoryReservationService inventoryReservations;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${import.products.batch-size:500}")
+    private int defaultBatchSize;
+
+    @Value("${import.products.max-batch-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${import.products.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ProductImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportSummaryResponse importProducts(InputStream input, Format format, Integer batchSize) {
+        int size = (batchSize != null) ? batchSize : defaultBatchSize;
+        if (size < 1 || size > maxBatchSize) {
+            throw new BadRequestException("batchSize must be between 1 and " + maxBatchSize);
+        }
+
+        Importer importer = new Importer(size);
+        try {
+            switch (format) {
+                case CSV -> readCsv(input, importer);
+                case JSON -> readJson(input, importer);
+                case NDJSON -> readNdjson(input, importer);
+            }
+        } catch (IOException ex) {
+            // The stream cannot be resynchronised; rows read so far are kept
+            importer.fail(importer.summary.getTotalRows() + 1, "Unreadable input: " + ex.getMessage());
+        } finally {
+            importer.finish();
+        }
+        log.info("Product import finished: {} rows, {} created, {} updated, {} failed",
+                importer.summary.getTotalRows(), importer.summary.getCreated(),
+                importer.summary.getUpdated(), importer.summary.getFailed());
+        return importer.summary;
+    }
+
+    // CSV needs a header row; columns are matched by name so their order does not matter
+    private void readCsv(InputStream input, Importer importer) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("\uFEFF", ""), i);
+        }
+        for (String required : List.of("name", "category", "price", "stock")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing the '" + required + "' column");
+            }
+        }
+
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            long row = importer.nextRow();
+            try {
+                ProductImportRow parsed = new ProductImportRow();
+                parsed.setId(parse(column(record, columns, "id"), Long::valueOf));
+                parsed.setName(column(record, columns, "name"));
+                parsed.setDescription(column(record, columns, "description"));
+                parsed.setCategory(column(record, columns, "category"));
+                parsed.setPrice(parse(column(record, columns, "price"), BigDecimal::new));
+                parsed.setStock(parse(column(record, columns, "stock"), Integer::valueOf));
+                importer.accept(row, parsed);
+            } catch (NumberFormatException ex) {
+                importer.fail(row, "Invalid number: " + ex.getMessage());
+            }
+        }
+    }
+
+    // A top-level JSON array, read element by element; an element of the wrong shape only fails that row.
+    // Broken JSON syntax still aborts, since the parser cannot tell where the next element starts.
+    private void readJson(InputStream input, Importer importer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ProductImportRow.class);
+        try (MappingIterator<ProductImportRow> rows = reader.readValues(input)) {
+            while (rows.hasNextValue()) {
+                long row = importer.nextRow();
+                try {
+                    importer.accept(row, rows.nextValue());
+                } catch (JsonMappingException ex) {
+                    // The iterator skips the rest of the failed element on the next hasNextValue()
+                    importer.fail(row, "Invalid record: " + ex.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    // One object per line; a malformed line only fails that row
+    private void readNdjson(InputStream input, Importer importer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ProductImportRow.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            long row = importer.nextRow();
+            try {
+                importer.accept(row, reader.readValue(line));
+            } catch (JsonProcessingException ex) {
+                importer.fail(row, "Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser) {
+        return value == null ? null : parser.apply(value);
+    }
+
+    private static String validate(ProductImportRow row) {
+        if (row == null) {
+            return "Empty record";
+        }
+        if (row.getName() == null || row.getName().isBlank()) {
+            return "name is required";
+        }
+        if (row.getCategory() == null || row.getCategory().isBlank()) {
+            return "category is required";
+        }
+        if (row.getPrice() == null || row.getPrice().signum() <= 0) {
+            return "price must be positive";
+        }
+        if (row.getStock() == null || row.getStock() < 0) {
+            return "stock must be zero or more";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > 2000) {
+            return "description is longer than 2000 characters";
+        }
+        return null;
+    }
+
+    private record PendingRow(long row, ProductImportRow data) {
+    }
+
+    private record BatchResult(int created, int updated, List<ImportSummaryResponse.RowError> errors) {
+    }
+
+    /** Accumulates parsed rows, flushes them in batches and keeps the running summary. */
+    private final class Importer {
+        private final int batchSize;
+        private final List<PendingRow> batch = new ArrayList<>();
+        private final ImportSummaryResponse summary = new ImportSummaryResponse();
+        private boolean anyWritten;
+
+        Importer(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        long nextRow() {
+            summary.setTotalRows(summary.getTotalRows() + 1);
+            return summary.getTotalRows();
+        }
+
+        void accept(long row, ProductImportRow data) {
+            String error = validate(data);
+            if (error != null) {
+                fail(row, error);
+                return;
+            }
+            batch.add(new PendingRow(row, data));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(long row, String message) {
+            summary.setFailed(summary.getFailed() + 1);
+            if (summary.getErrors().size() < maxReportedErrors) {
+                summary.getErrors().add(new ImportSummaryResponse.RowError(row, message));
+            } else {
+                summary.setErrorsTruncated(true);
+            }
+        }
+
+        void finish() {
+            flush();
+            if (anyWritten) {
+                // Page boundaries and totals moved; one catalog-wide invalidation instead of one per row
+                productCache.catalogReplaced();
+                inventoryReservations.refreshAll();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<PendingRow> rows = new ArrayList<>(batch);
+            batch.clear();
+            try {
+                record(transactionTemplate.execute(status -> writeBatch(rows)));
+            } catch (RuntimeException ex) {
+                log.debug("Import batch of {} rows failed, retrying row by row", rows.size(), ex);
+                for (PendingRow row : rows) {
+                    try {
+                        record(transactionTemplate.execute(status -> writeBatch(List.of(row))));
+                    } catch (RuntimeException rowEx) {
+                        fail(row.row(), rootMessage(rowEx));
+                    }
+                }
+            }
+        }
+
+        private void record(BatchResult result) {
+            summary.setCreated(summary.getCreated() + result.created());
+            summary.setUpdated(summary.getUpdated() + result.updated());
+            result.errors().forEach(e -> fail(e.getRow(), e.getMessage()));
+            anyWritten |= result.created() + result.updated() > 0;
+        }
+    }
+
+    /**
+     * Writes one batch: existing products are loaded with a single IN query and
+     * updated, new ones persisted, then everything is flushed as JDBC batches and
+     * the persistence context cleared.
+     */
+    private BatchResult writeBatch(List<PendingRow> rows) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(rows.size());
+
+        List<Long> ids = rows.stream().map(r -> r.data().getId()).filter(id -> id != null).distinct().toList();
+        Map<Long, Product> existing = ids.isEmpty() ? Map.of() : entityManager
+                .createQuery("SELECT p FROM Product p WHERE p.id IN :ids", Product.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        int created = 0;
+        int updated = 0;
+        List<ImportSummaryResponse.RowError> errors = new ArrayList<>();
+        List<Product> written = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            ProductImportRow data = row.data();
+            Product product;
+            if (data.getId() != null) {
+                product = existing.get(data.getId());
+                if (product == null) {
+                    errors.add(new ImportSummaryResponse.RowError(row.row(), "Product " + data.getId() + " does not exist"));
+                    continue;
+                }
+                updated++;
+            } else {
+                product = new Product();
+                created++;
+            }
+            product.setName(data.getName());
+            product.setDescription(data.getDescription());
+            product.setCategory(data.getCategory());
+            product.setPrice(data.getPrice());
+            product.setStock(data.getStock());
+            if (product.getId() == null) {
+                entityManager.persist(product);
+            }
+            written.add(product);
+        }
+
+        entityManager.flush();
+        written.forEach(productSearchIndex::index);
+        entityManager.clear();
+        return new BatchResult(created, updated, errors);
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable root = ex;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+}
@@ -3,25 +3,34 @@ package com.grengcry.service;
 import com.grengcry.dto.request.CreateProductRequest;
 import com.grengcry.dto.response.PagedResponse;
 import com.grengcry.dto.response.ProductResponse;
+import com.grengcry.exception.BadRequestException;
 import com.grengcry.exception.ResourceNotFoundException;
 import com.grengcry.model.entity.Product;
 import com.grengcry.repository.ProductRepository;
+import com.grengcry.search.ProductSearchIndex;
 import com.grengcry.util.EntityMapper;
+import com.grengcry.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +39,18 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ImageProcessingService imageProcessingService;
+
+    @Autowired
+    private InventoryReservationService inventoryReservations;
+
     private final Path fileStorageLocation;
 
     // Constructor to initialize the file storage location from application.properties
@@ -44,16 +65,40 @@ public class ProductService {
         }
     }
 
-    public PagedResponse<ProductResponse> getProducts(Integer page, Integer limit) {
+    public PagedResponse<ProductResponse> getProducts(Integer page, Integer limit, boolean withTotal) {
+        return productCache.getPage("page:" + page + ":" + limit + ":" + withTotal,
+            () -> withTotal ? loadProducts(page, limit) : loadProductSlice(page, limit));
+    }
+
+    public PagedResponse<ProductResponse> getProductsAfter(String cursor, Integer limit, boolean withTotal) {
+        KeysetCursor.checkLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return productCache.getPage("cursor:" + cursor + ":" + limit + ":" + withTotal,
+            () -> loadProductsAfter(after, limit, withTotal));
+    }
+
+    private PagedResponse<ProductResponse> loadProductSlice(Integer page, Integer limit) {
+        Slice<ProductResponse> productSlice = productRepository.findListingSlice(PageRequest.of(page - 1, limit));
+        return PagedResponse.ofSlice(productSlice.getContent(), page, productSlice.hasNext());
+    }
+
+    private PagedResponse<ProductResponse> loadProductsAfter(KeysetCursor after, Integer limit, boolean withTotal) {
+        // Fetch one extra row to find out whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<ProductResponse> rows = (after == null)
+            ? productRepository.findListingFirst(pageable)
+            : productRepository.findListingAfter(after.createdAt(), after.id(), pageable);
+        Long total = withTotal ? productRepository.count() : null;
+        return KeysetCursor.toPage(rows, limit, total, Function.identity(),
+            ProductResponse::getCreatedAt, ProductResponse::getId);
+    }
+
+    private PagedResponse<ProductResponse> loadProducts(Integer page, Integer limit) {
         Pageable pageable = PageRequest.of(page - 1, limit);
-        Page<Product> productPage = productRepository.findAll(pageable);
-        
-        List<ProductResponse> products = productPage.getContent().stream()
-            .map(EntityMapper::toProductResponse) // Static call to the mapper
-            .collect(Collectors.toList());
+        Page<ProductResponse> productPage = productRepository.findListing(pageable);
             
         return new PagedResponse<>(
-            products,
+            productPage.getContent(),
             productPage.getTotalElements(),
             page,
             productPage.getTotalPages()
@@ -61,9 +106,48 @@ public class ProductService {
     }
 
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Product not found", "id", id));
-        return EntityMapper.toProductResponse(product);
+        return productCache.getProduct(id, key -> {
+            Product product = productRepository.findById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found", "id", key));
+            return EntityMapper.toProductResponse(product);
+        });
+    }
+
+    public long getCatalogVersion() {
+        return productCache.getCatalogVersion();
+    }
+
+    /**
+     * Last modification time of a product, taken from the cache when possible and
+     * otherwise from a single-column query, so a conditional GET can be answered
+     * without loading and mapping the full entity. Returns null if unknown.
+     */
+    public LocalDateTime getProductLastModified(Long id) {
+        ProductResponse cached = productCache.peekProduct(id);
+        if (cached != null) {
+            return cached.getUpdatedAt();
+        }
+        return productRepository.findUpdatedAtById(id).orElse(null);
+    }
+
+    public PagedResponse<ProductResponse> searchProducts(String query, String category, Integer page, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be empty");
+        }
+        if (page < 1 || limit < 1) {
+            throw new BadRequestException("page and limit must be at least 1");
+        }
+        List<Long> matches = productSearchIndex.search(query, category);
+        int from = (int) Math.min((long) (page - 1) * limit, matches.size());
+        int to = Math.min(from + limit, matches.size());
+
+        List<ProductResponse> products = productCache.getProducts(matches.subList(from, to),
+            missing -> productRepository.findAllById(missing).stream()
+                .map(EntityMapper::toProductResponse)
+                .collect(Collectors.toList()));
+
+        int pages = (int) Math.ceil((double) matches.size() / limit);
+        return new PagedResponse<>(products, matches.size(), page, pages);
     }
 
     @Transactional
@@ -76,6 +160,8 @@ public class ProductService {
         product.setStock(request.getStock());
         
         Product savedProduct = productRepository.save(product);
+        productCache.productCreated();
+        productSearchIndex.index(savedProduct);
         return EntityMapper.toProductResponse(savedProduct);
     }
 
@@ -91,13 +177,18 @@ public class ProductService {
         product.setStock(request.getStock());
         
         Product updatedProduct = productRepository.save(product);
+        productCache.productChanged(id);
+        productSearchIndex.index(updatedProduct);
+        afterCommit(() -> inventoryReservations.refresh(id));
         return EntityMapper.toProductResponse(updatedProduct);
     }
     
-    @Transactional
+    // Deliberately not @Transactional: the upload is streamed to disk before any
+    // database work, and the image column is then updated in its own short transaction
     public ProductResponse updateProductImage(Long id, MultipartFile file) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Product not found", "id", id));
+        if (!productRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Product not found", "id", id);
+        }
 
         String originalFilename = file.getOriginalFilename();
         if (originalFilename == null) {
@@ -111,19 +202,28 @@ public class ProductService {
             fileExtension = originalFilename.substring(i);
         }
         String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-        
-        try {
-            Path targetLocation = this.fileStorageLocation.resolve(uniqueFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            
-            // Set the relative path to be stored in the database
-            product.setImage("uploads/" + uniqueFileName);
-            
-            Product updatedProduct = productRepository.save(product);
-            return EntityMapper.toProductResponse(updatedProduct);
+        Path targetLocation = this.fileStorageLocation.resolve(uniqueFileName);
+
+        try (InputStream input = file.getInputStream()) {
+            Files.copy(input, targetLocation, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException ex) {
             throw new RuntimeException("Could not store file " + uniqueFileName + ". Please try again!", ex);
         }
+
+        // Set the relative path to be stored in the database
+        String image = "uploads/" + uniqueFileName;
+        if (productRepository.updateImage(id, image) == 0) {
+            // Product was deleted while the upload was being written
+            try {
+                Files.deleteIfExists(targetLocation);
+            } catch (IOException ignored) {
+                // best effort cleanup
+            }
+            throw new ResourceNotFoundException("Product not found", "id", id);
+        }
+        productCache.productChanged(id);
+        imageProcessingService.submit(id, image, targetLocation);
+        return getProductById(id);
     }
 
     @Transactional
@@ -132,5 +232,21 @@ public class ProductService {
             throw new ResourceNotFoundException("Product not found", "id", id);
         }
         productRepository.deleteById(id);
+        productCache.productDeleted(id);
+        productSearchIndex.remove(id);
+        afterCommit(() -> inventoryReservations.forget(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.grengcry.service;
+
+import com.grengcry.model.entity.User;
+import com.grengcry.repository.UserRepository;
+import com.grengcry.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Detached copies of user rows for read-only lookups (login, admin user
+ * views), keyed by email and by id. Every read hands out a fresh copy, so a
+ * caller can never change what the next caller sees. Email keys are lower-cased
+ * to match the case-insensitive collation of users.email. Code that writes users
+ * or links them to other entities keeps using the repository.
+ */
+@Component
+public class UserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final BoundedCache<String, User> byEmail;
+    private final BoundedCache<Long, User> byId;
+
+    public UserCache(@Value("${cache.users.max-size:5000}") int maxSize,
+                     @Value("${cache.users.ttl-seconds:300}") long ttlSeconds) {
+        this.byEmail = new BoundedCache<>(maxSize, ttlSeconds * 1000);
+        this.byId = new BoundedCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    public Optional<User> findByEmail(String email) {
+        User cached = byEmail.get(emailKey(email));
+        if (cached == null) {
+            cached = userRepository.findByEmail(email).map(this::store).orElse(null);
+        }
+        return Optional.ofNullable(cached).map(UserCache::copy);
+    }
+
+    public Optional<User> findById(Long id) {
+        User cached = byId.get(id);
+        if (cached == null) {
+            cached = userRepository.findById(id).map(this::store).orElse(null);
+        }
+        return Optional.ofNullable(cached).map(UserCache::copy);
+    }
+
+    /**
+     * Drops the user under both keys, right away and once more after the
+     * surrounding transaction commits, so a reader that reloaded the old row
+     * in between does not leave a stale entry behind.
+     */
+    public void evict(Long id, String... emails) {
+        Runnable action = () -> {
+            if (id != null) {
+                byId.invalidate(id);
+            }
+            for (String email : emails) {
+                if (email != null) {
+                    byEmail.invalidate(emailKey(email));
+                }
+            }
+        };
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    public Map<String, BoundedCache.Stats> stats() {
+        Map<String, BoundedCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("byEmail", byEmail.stats());
+        stats.put("byId", byId.stats());
+        return stats;
+    }
+
+    private User store(User user) {
+        User snapshot = copy(user);
+        byEmail.put(emailKey(snapshot.getEmail()), snapshot);
+        byId.put(snapshot.getId(), snapshot);
+        return snapshot;
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail(), user.getPassword(), user.getRole(),
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
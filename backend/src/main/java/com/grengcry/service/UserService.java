@@ -13,7 +13,8 @@ public interface UserService {
     List<UserResponse> getAllUsers();
 
     // These are the other methods from your implementation
-    PagedResponse<UserResponse> getUsers(Integer page, Integer limit, Role role);
+    PagedResponse<UserResponse> getUsers(Integer page, Integer limit, Role role, boolean withTotal);
+    PagedResponse<UserResponse> getUsersAfter(String cursor, Integer limit, Role role, boolean withTotal);
     UserResponse getUserById(Long id);
     UserResponse updateUser(Long id, UpdateUserRequest request);
     void deleteUser(Long id);
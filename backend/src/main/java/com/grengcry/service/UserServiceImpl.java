@@ -8,11 +8,14 @@ import com.grengcry.exception.ResourceNotFoundException;
 import com.grengcry.model.entity.User;
 import com.grengcry.model.enums.Role;
 import com.grengcry.repository.UserRepository;
+import com.grengcry.security.TokenVersions;
 import com.grengcry.util.EntityMapper;
+import com.grengcry.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +29,12 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenVersions tokenVersions;
+
+    @Autowired
+    private UserCache userCache;
+
     // This method is required by your UserController
     @Override
     public List<UserResponse> getAllUsers() {
@@ -35,8 +44,18 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public PagedResponse<UserResponse> getUsers(Integer page, Integer limit, Role role) {
+    public PagedResponse<UserResponse> getUsers(Integer page, Integer limit, Role role, boolean withTotal) {
         Pageable pageable = PageRequest.of(page - 1, limit);
+        if (!withTotal) {
+            Slice<User> userSlice = (role != null)
+                ? userRepository.findSliceByRole(role, pageable)
+                : userRepository.findSliceBy(pageable);
+            List<UserResponse> users = userSlice.getContent().stream()
+                .map(EntityMapper::toUserResponse)
+                .collect(Collectors.toList());
+            return PagedResponse.ofSlice(users, page, userSlice.hasNext());
+        }
+
         Page<User> userPage;
         
         if (role != null) {
@@ -56,10 +75,34 @@ public class UserServiceImpl implements UserService {
             userPage.getTotalPages()
         );
     }
+
+    @Override
+    public PagedResponse<UserResponse> getUsersAfter(String cursor, Integer limit, Role role, boolean withTotal) {
+        KeysetCursor.checkLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // Fetch one extra row to find out whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<User> rows;
+        if (after == null) {
+            rows = (role != null)
+                ? userRepository.findByRoleOrderByCreatedAtDescIdDesc(role, pageable)
+                : userRepository.findByOrderByCreatedAtDescIdDesc(pageable);
+        } else {
+            rows = (role != null)
+                ? userRepository.findPageAfterByRole(role, after.createdAt(), after.id(), pageable)
+                : userRepository.findPageAfter(after.createdAt(), after.id(), pageable);
+        }
+        Long total = null;
+        if (withTotal) {
+            total = (role != null) ? userRepository.countByRole(role) : userRepository.count();
+        }
+        return KeysetCursor.toPage(rows, limit, total, EntityMapper::toUserResponse,
+            User::getCreatedAt, User::getId);
+    }
     
     @Override
     public UserResponse getUserById(Long id) {
-        User user = userRepository.findById(id)
+        User user = userCache.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("User not found", "id", id));
         return EntityMapper.toUserResponse(user);
     }
@@ -69,6 +112,7 @@ public class UserServiceImpl implements UserService {
     public UserResponse updateUser(Long id, UpdateUserRequest request) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("User not found", "id", id));
+        String previousEmail = user.getEmail();
         
         if (request.getName() != null) {
             user.setName(request.getName());
@@ -87,15 +131,19 @@ public class UserServiceImpl implements UserService {
         }
         
         user = userRepository.save(user);
+        // Issued tokens carry the old email and role; make the user sign in again
+        tokenVersions.bump(id);
+        userCache.evict(id, previousEmail, user.getEmail());
         return EntityMapper.toUserResponse(user);
     }
     
     @Override
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found", "id", id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found", "id", id));
+        userRepository.delete(user);
+        tokenVersions.bump(id);
+        userCache.evict(id, user.getEmail());
     }
 }
\ No newline at end of file
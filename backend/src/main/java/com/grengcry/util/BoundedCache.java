@@ -0,0 +1,128 @@
+package com.grengcry.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Small in-process LRU cache with a size bound and a time-to-live per entry.
+ * All operations synchronize on the cache itself, which is fine for the short
+ * critical sections here (a hash lookup and a linked-list relink).
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Bumped by every invalidation; lets a load that raced with a write drop its result
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        // accessOrder = true turns the map into an LRU list
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Returns the cached value, or computes and caches it. The loader runs
+     * outside the lock so a slow database call does not block other readers.
+     * If anything was invalidated while the loader ran, its result may predate
+     * that write, so it is returned but not cached.
+     */
+    public V getOrLoad(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        long before = generation();
+        value = loader.apply(key);
+        if (value != null) {
+            putIfUnchanged(key, value, before);
+        }
+        return value;
+    }
+
+    /** Current invalidation generation; pass it to {@link #putIfUnchanged} after loading. */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /** Caches the value only if nothing was invalidated since {@code generation} was read. */
+    public synchronized boolean putIfUnchanged(K key, V value, long generation) {
+        if (this.generation != generation) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        while (entries.size() > maxSize) {
+            Iterator<K> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /** Drops every entry matching the predicate, e.g. listing pages that contain a product. */
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        generation++;
+        entries.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value));
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), maxSize, hits, misses, evictions);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    public record Stats(int size, int maxSize, long hits, long misses, long evictions) {
+    }
+}
@@ -27,6 +27,8 @@ public class EntityMapper {
         dto.setPrice(product.getPrice());
         dto.setStock(product.getStock());
         dto.setImage(product.getImage());
+        dto.setImageThumb(product.getImageThumb());
+        dto.setImageMedium(product.getImageMedium());
         dto.setCreatedAt(product.getCreatedAt());
         dto.setUpdatedAt(product.getUpdatedAt());
         return dto;
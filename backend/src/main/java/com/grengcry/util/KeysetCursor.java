@@ -0,0 +1,67 @@
+package com.grengcry.util;
+
+import com.grengcry.dto.response.PagedResponse;
+import com.grengcry.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Opaque cursor for keyset (seek) pagination over (createdAt DESC, id DESC).
+ * Clients only ever echo back the string they received in {@code nextCursor}.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    /** Largest page a keyset endpoint returns; its query reads one row more. */
+    public static final int MAX_LIMIT = 100;
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns null for an empty cursor, which means "start from the first row". */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /** Rejects a page size outside 1..{@link #MAX_LIMIT} before it reaches {@code limit + 1}. */
+    public static void checkLimit(Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    /**
+     * Builds a cursor page from rows fetched with {@code limit + 1}; the extra row
+     * only tells us whether another page exists and is not returned.
+     */
+    public static <E, T> PagedResponse<T> toPage(List<E> rows, int limit, Long total,
+                                                  Function<E, T> mapper,
+                                                  Function<E, LocalDateTime> createdAt,
+                                                  Function<E, Long> id) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new KeysetCursor(createdAt.apply(last), id.apply(last)).encode();
+        }
+        List<T> data = pageRows.stream().map(mapper).collect(Collectors.toList());
+        return PagedResponse.ofCursor(data, nextCursor, total);
+    }
+}
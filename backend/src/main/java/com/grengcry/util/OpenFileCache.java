@@ -0,0 +1,104 @@
+package com.grengcry.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a bounded number of read-only {@link FileChannel}s open for hot files so
+ * repeated requests skip open/stat/close. Channels are only read with positional
+ * {@code transferTo}, so one channel can serve many requests at once. An evicted
+ * channel is closed when its last user releases it.
+ *
+ * Only suitable for files that are never modified in place, such as uploads
+ * stored under unique names.
+ */
+public class OpenFileCache {
+
+    private final int maxOpenFiles;
+    private final LinkedHashMap<Path, Handle> handles = new LinkedHashMap<>(16, 0.75f, true);
+
+    public OpenFileCache(int maxOpenFiles) {
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /** Returns an acquired handle; close it (try-with-resources) when done. */
+    public Handle open(Path path) throws IOException {
+        synchronized (this) {
+            Handle cached = handles.get(path);
+            if (cached != null) {
+                cached.references++;
+                return cached;
+            }
+        }
+
+        // Open outside the lock; a concurrent opener of the same file just loses the race below
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        Handle handle = new Handle(this, channel, channel.size(), Files.getLastModifiedTime(path).toMillis());
+
+        synchronized (this) {
+            Handle existing = handles.get(path);
+            if (existing != null) {
+                existing.references++;
+                channel.close();
+                return existing;
+            }
+            handle.references = 2; // one for the cache, one for the caller
+            handles.put(path, handle);
+            Iterator<Map.Entry<Path, Handle>> eldest = handles.entrySet().iterator();
+            while (handles.size() > maxOpenFiles && eldest.hasNext()) {
+                Handle evicted = eldest.next().getValue();
+                eldest.remove();
+                release(evicted);
+            }
+            return handle;
+        }
+    }
+
+    private synchronized void release(Handle handle) {
+        if (--handle.references == 0) {
+            try {
+                handle.channel.close();
+            } catch (IOException ignored) {
+                // nothing useful to do for a read-only channel
+            }
+        }
+    }
+
+    public static final class Handle implements AutoCloseable {
+        private final OpenFileCache owner;
+        private final FileChannel channel;
+        private final long size;
+        private final long lastModified;
+        private int references;
+
+        private Handle(OpenFileCache owner, FileChannel channel, long size, long lastModified) {
+            this.owner = owner;
+            this.channel = channel;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public FileChannel channel() {
+            return channel;
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public void close() {
+            owner.release(this);
+        }
+    }
+}
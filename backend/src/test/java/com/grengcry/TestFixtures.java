@@ -0,0 +1,59 @@
+package com.grengcry;
+
+import com.grengcry.dto.request.CreateOrderRequest;
+import com.grengcry.model.entity.Product;
+import com.grengcry.model.entity.User;
+import com.grengcry.model.enums.Role;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Products, customers and carts shared by the service tests. Pull it in with
+ * {@code @Import(TestFixtures.class)}; each test still cleans up its own rows.
+ */
+@TestComponent
+public class TestFixtures {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public Product createProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory("Test");
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    public User createUser(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setRole(Role.CUSTOMER);
+        return userRepository.save(user);
+    }
+
+    public int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    public static CreateOrderRequest cart(Long productId, int quantity) {
+        CreateOrderRequest.OrderProductRequest line = new CreateOrderRequest.OrderProductRequest();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setProducts(new ArrayList<>(List.of(line)));
+        return request;
+    }
+}
@@ -0,0 +1,195 @@
+package com.grengcry.controller;
+
+import com.grengcry.model.entity.Order;
+import com.grengcry.model.entity.OrderItem;
+import com.grengcry.model.entity.Product;
+import com.grengcry.model.entity.User;
+import com.grengcry.model.enums.Role;
+import com.grengcry.repository.OrderRepository;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import com.grengcry.security.CustomUserDetails;
+import com.grengcry.util.KeysetCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each order read endpoint issues. Every
+ * order in the fixture has its own user and several distinct products, so any
+ * lazy association loaded per row shows up as extra statements.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+class OrderQueryCountTest {
+
+    private static final int ORDERS = 12;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long firstOrderId;
+    private User repeatCustomer;
+
+    @BeforeEach
+    void seed() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ORDERS * ITEMS_PER_ORDER; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setCategory("Test");
+            product.setPrice(new BigDecimal("2.50"));
+            product.setStock(100);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+
+        for (int i = 0; i < ORDERS; i++) {
+            User user = new User();
+            user.setName("customer" + i);
+            user.setEmail("customer" + i + "@example.com");
+            user.setPassword("x");
+            user.setRole(Role.CUSTOMER);
+            userRepository.save(user);
+
+            Order order = new Order();
+            order.setUser(user);
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                OrderItem item = new OrderItem();
+                item.setProduct(products.get(i * ITEMS_PER_ORDER + j));
+                item.setQuantity(1);
+                item.setPrice(new BigDecimal("2.50"));
+                order.addItem(item);
+            }
+            order.setTotal(new BigDecimal("7.50"));
+            orderRepository.save(order);
+            if (firstOrderId == null) {
+                firstOrderId = order.getId();
+            }
+        }
+
+        // A customer with a longer history, for the "My Orders" endpoint
+        repeatCustomer = userRepository.findAll().get(0);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUser(repeatCustomer);
+            OrderItem item = new OrderItem();
+            item.setProduct(products.get(i));
+            item.setQuantity(2);
+            item.setPrice(new BigDecimal("2.50"));
+            order.addItem(item);
+            order.setTotal(new BigDecimal("5.00"));
+            orderRepository.save(order);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void offsetPageWithTotal() throws Exception {
+        // page ids, COUNT(*), one joined select for the page
+        assertStatements(3, get("/api/orders").param("limit", "10"), 10);
+    }
+
+    @Test
+    void offsetPageWithoutTotal() throws Exception {
+        assertStatements(2, get("/api/orders").param("limit", "10").param("withTotal", "false"), 10);
+    }
+
+    @Test
+    void keysetPage() throws Exception {
+        String cursor = new KeysetCursor(LocalDateTime.now().plusDays(1), Long.MAX_VALUE).encode();
+        assertStatements(2, get("/api/orders").param("limit", "10").param("cursor", cursor)
+                .param("withTotal", "false"), 10);
+    }
+
+    @Test
+    void orderDetail() throws Exception {
+        long before = statistics().getPrepareStatementCount();
+        mockMvc.perform(get("/api/orders/{id}", firstOrderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.email").exists())
+                .andExpect(jsonPath("$.items.length()").value(ITEMS_PER_ORDER))
+                .andExpect(jsonPath("$.items[0].product.name").exists());
+        assertEquals(1, statistics().getPrepareStatementCount() - before, "statements for GET /api/orders/{id}");
+    }
+
+    @Test
+    void myOrders() throws Exception {
+        long before = statistics().getPrepareStatementCount();
+        mockMvc.perform(get("/api/users/me/orders").param("limit", "10")
+                        .with(user(new CustomUserDetails(repeatCustomer))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(10))
+                .andExpect(jsonPath("$.data[0].items[0].productName").exists())
+                .andExpect(jsonPath("$.nextCursor").exists());
+        // history rows, item lines of the page
+        assertEquals(2, statistics().getPrepareStatementCount() - before, "statements for GET /api/users/me/orders");
+    }
+
+    @Test
+    void outOfRangeLimitIsRejected() throws Exception {
+        for (String limit : List.of("0", "-1", "101", String.valueOf(Integer.MAX_VALUE))) {
+            mockMvc.perform(get("/api/users/me/orders").param("limit", limit)
+                            .with(user(new CustomUserDetails(repeatCustomer))))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/orders").param("limit", limit).param("cursor", ""))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private void assertStatements(long expected, MockHttpServletRequestBuilder request, int rows) throws Exception {
+        long before = statistics().getPrepareStatementCount();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(rows))
+                .andExpect(jsonPath("$.data[0].user.email").exists())
+                .andExpect(jsonPath("$.data[0].items[0].product.name").exists());
+        assertEquals(expected, statistics().getPrepareStatementCount() - before, "statements per listing request");
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,119 @@
+package com.grengcry.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grengcry.model.entity.OutboxEvent;
+import com.grengcry.model.enums.OrderEventType;
+import com.grengcry.model.enums.OrderStatus;
+import com.grengcry.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * One event that a listener keeps rejecting must not take the rest of its
+ * batch down with it, nor let later events of its order overtake it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> delivered = new ArrayList<>();
+
+    private Long poison;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void failingEventIsRetriedAloneAndHoldsBackItsOrder() throws Exception {
+        outboxEventRepository.append(List.of(row(1L), row(1L), row(2L), row(3L)));
+        List<OutboxEvent> rows = outboxEventRepository.findAll(Sort.by("id"));
+        Long first = rows.get(0).getId();
+        Long second = rows.get(1).getId();
+        poison = first;
+        OutboxDispatcher dispatcher = dispatcher(2);
+
+        dispatcher.dispatch();
+        // The other orders go through; the failing event used one attempt and its successor waits
+        assertEquals(List.of(rows.get(2).getId(), rows.get(3).getId()), delivered);
+        assertEquals(1, reload(first).getAttempts());
+        assertEquals(0, reload(second).getAttempts());
+        assertNull(reload(second).getPublishedAt());
+        assertEquals(2, dispatcher.backlog());
+        assertEquals(0, dispatcher.deadLettered());
+
+        // Still backing off: nothing of order 1 is due
+        dispatcher.dispatch();
+        assertEquals(2, delivered.size());
+
+        // Out of attempts on the retry: dead-lettered on its own, and order 1 stays held
+        jdbcTemplate.update("UPDATE outbox_events SET next_attempt_at = ? WHERE id = ?",
+                LocalDateTime.now().minusSeconds(1), first);
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+        assertEquals(2, delivered.size());
+        assertEquals(2, reload(first).getAttempts());
+        assertEquals(0, reload(second).getAttempts());
+        assertNotNull(reload(first).getLastError());
+        assertEquals(2, dispatcher.backlog());
+        assertEquals(1, dispatcher.deadLettered());
+    }
+
+    private OutboxDispatcher dispatcher(int maxAttempts) {
+        OutboxDispatcher dispatcher = new OutboxDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(dispatcher, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(dispatcher, "listeners", List.<OrderEventListener>of(events -> {
+            if (events.stream().anyMatch(e -> e.eventId().equals(poison))) {
+                throw new IllegalStateException("rejected event " + poison);
+            }
+            events.forEach(e -> delivered.add(e.eventId()));
+        }));
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 200);
+        ReflectionTestUtils.setField(dispatcher, "maxBatchesPerRun", 1);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMillis", 60_000L);
+        return dispatcher;
+    }
+
+    private OutboxEvent row(Long orderId) throws Exception {
+        OrderEvent event = new OrderEvent(null, OrderEventType.ORDER_STATUS_CHANGED, orderId, 1L, OrderStatus.PAID,
+                OrderStatus.PENDING, BigDecimal.TEN, LocalDateTime.now(), List.of(), LocalDateTime.now());
+        OutboxEvent row = new OutboxEvent();
+        row.setEventType(event.type());
+        row.setAggregateId(orderId);
+        row.setPayload(objectMapper.writeValueAsString(event));
+        return row;
+    }
+
+    private OutboxEvent reload(Long id) {
+        return outboxEventRepository.findById(id).orElseThrow();
+    }
+}
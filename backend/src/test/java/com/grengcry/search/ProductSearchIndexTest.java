@@ -0,0 +1,50 @@
+package com.grengcry.search;
+
+import com.grengcry.model.entity.Product;
+import com.grengcry.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void failedRebuildDropsItsJournal() {
+        ProductRepository products = mock(ProductRepository.class);
+        when(products.findAll(any(Pageable.class))).thenThrow(new DataAccessResourceFailureException("down"));
+        ProductSearchIndex index = new ProductSearchIndex();
+        ReflectionTestUtils.setField(index, "productRepository", products);
+
+        assertThrows(DataAccessResourceFailureException.class, index::rebuild);
+        assertNull(ReflectionTestUtils.getField(index, "journal"));
+
+        // Writes keep landing in the live segment, and the next rebuild starts clean
+        index.index(product(1L, "Green Tea"));
+        assertEquals(List.of(1L), index.search("tea", null));
+        when(products.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(product(2L, "Black Tea"))));
+        index.rebuild();
+        assertEquals(List.of(2L), index.search("tea", null));
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory("Tea");
+        product.setPrice(BigDecimal.ONE);
+        product.setStock(1);
+        return product;
+    }
+}
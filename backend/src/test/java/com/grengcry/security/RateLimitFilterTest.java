@@ -0,0 +1,150 @@
+package com.grengcry.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the filter with anonymous requests, keyed by remote address, on a
+ * clock the test moves by hand. Most go to a path of the default route.
+ */
+class RateLimitFilterTest {
+
+    private long now;
+
+    @Test
+    void burstThenThrottleWithRetryAfter() throws Exception {
+        // 3 requests of burst, one token every 2 seconds
+        RateLimitFilter filter = filter(3, 0.5, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call(filter, "10.0.0.1").getStatus());
+        }
+        MockHttpServletResponse rejected = call(filter, "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(rejected.getContentAsString().contains("TOO_MANY_REQUESTS"));
+        // Never stored by a shared cache and replayed to other clients
+        assertEquals("no-store", rejected.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        // Partial waits round up to whole seconds
+        advanceMillis(1500);
+        assertEquals("1", call(filter, "10.0.0.1").getHeader(HttpHeaders.RETRY_AFTER));
+
+        // Other clients have their own bucket
+        assertEquals(200, call(filter, "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void bucketRefillsOverTime() throws Exception {
+        RateLimitFilter filter = filter(3, 0.5, 100);
+        drain(filter, "10.0.0.1", 3);
+
+        // One token back after one interval
+        advanceMillis(2000);
+        assertEquals(200, call(filter, "10.0.0.1").getStatus());
+        assertEquals(429, call(filter, "10.0.0.1").getStatus());
+
+        // A long pause refills the whole burst, and not a request more
+        advanceMillis(60_000);
+        drain(filter, "10.0.0.1", 3);
+    }
+
+    @Test
+    void sweepKeepsDrainedBucketsAndDropsFullOnes() throws Exception {
+        // A single tracked client per route, so the sweep decides who gets a bucket
+        RateLimitFilter filter = filter(2, 1, 1);
+        drain(filter, "10.0.0.1", 2);
+
+        // Still draining: the sweep keeps its state
+        advanceMillis(500);
+        filter.sweep();
+        assertEquals(429, call(filter, "10.0.0.1").getStatus());
+
+        // Refilled: dropped, and the slot goes to the next new client
+        advanceMillis(10_000);
+        filter.sweep();
+        drain(filter, "10.0.0.2", 2);
+        // 10.0.0.2 did not land on the shared overflow bucket, which is still untouched
+        assertEquals(200, call(filter, "10.0.0.3").getStatus());
+    }
+
+    @Test
+    void clientsBeyondMaxKeysShareTheOverflowBucket() throws Exception {
+        RateLimitFilter filter = filter(2, 1, 1);
+        assertEquals(200, call(filter, "10.0.0.1").getStatus());
+
+        // 10.0.0.1 still holds the only slot, so newcomers share one bucket
+        assertEquals(200, call(filter, "10.0.0.2").getStatus());
+        assertEquals(200, call(filter, "10.0.0.3").getStatus());
+        assertEquals(429, call(filter, "10.0.0.4").getStatus());
+
+        // The tracked client is unaffected
+        assertEquals(200, call(filter, "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void uploadsHaveTheirOwnBucket() throws Exception {
+        RateLimitFilter filter = filter(3, 0.5, 100);
+        drain(filter, "10.0.0.1", 3);
+
+        // Thumbnails for a whole catalog page still load
+        for (int i = 0; i < 100; i++) {
+            assertEquals(200, request(filter, "GET", "/uploads/products/thumb-" + i + ".jpg", "10.0.0.1").getStatus());
+        }
+    }
+
+    @Test
+    void disabledFilterPassesEverything() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(false, 100, 1, 1, 1, 1, 1, 1, 1, 1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, call(filter, "10.0.0.1").getStatus());
+        }
+    }
+
+    private RateLimitFilter filter(int capacity, double perSecond, int maxKeys) {
+        RateLimitFilter filter = new RateLimitFilter(true, maxKeys, 10, 0.5, 100, 20, 300, 50, capacity, perSecond);
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+        filter.clock = () -> now;
+        return filter;
+    }
+
+    private void drain(RateLimitFilter filter, String address, int tokens) throws Exception {
+        for (int i = 0; i < tokens; i++) {
+            assertEquals(200, call(filter, address).getStatus());
+        }
+        assertEquals(429, call(filter, address).getStatus());
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String address) throws Exception {
+        return request(filter, "POST", "/api/orders", address);
+    }
+
+    private static MockHttpServletResponse request(RateLimitFilter filter, String method, String uri, String address)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        // Path matchers read the servlet path, as under the DispatcherServlet mapped to "/"
+        request.setServletPath(uri);
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        if (response.getStatus() == 200) {
+            assertNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+        }
+        return response;
+    }
+
+    private void advanceMillis(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
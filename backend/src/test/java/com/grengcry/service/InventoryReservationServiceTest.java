@@ -0,0 +1,219 @@
+package com.grengcry.service;
+
+import com.grengcry.TestFixtures;
+import com.grengcry.exception.BadRequestException;
+import com.grengcry.model.entity.Product;
+import com.grengcry.repository.OrderRepository;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.grengcry.TestFixtures.cart;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reservation mode: counters are taken with CAS at checkout and written back to
+ * products.stock by flush(). The scheduled flush and sweep are pushed out of
+ * the way so each test drives them itself.
+ */
+@SpringBootTest(properties = {
+        "inventory.reservations.enabled=true",
+        "inventory.reservations.timeout-ms=50",
+        "inventory.reservations.flush-interval-ms=3600000",
+        "inventory.reservations.sweep-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class InventoryReservationServiceTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private InventoryReservationService inventoryReservations;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        inventoryReservations.flush();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversellAndFlushOnce() throws Exception {
+        Product product = fixtures.createProduct("Flash Sale", 10);
+        int buyers = 40;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            userIds.add(fixtures.createUser("flash" + i + "@example.com").getId());
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(userIds.size(), i -> {
+            try {
+                orderService.createOrder(userIds.get(i), cart(product.getId(), 1));
+                succeeded.incrementAndGet();
+            } catch (BadRequestException ex) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(10, succeeded.get());
+        assertEquals(buyers - 10, rejected.get());
+        // Nothing reaches products.stock until the write-back runs
+        assertEquals(10, fixtures.stockOf(product));
+        assertEquals(10, orderRepository.findStockPendingIds().size());
+
+        inventoryReservations.flush();
+        assertEquals(0, fixtures.stockOf(product));
+        assertTrue(orderRepository.findStockPendingIds().isEmpty());
+
+        // A second flush has nothing left to apply
+        inventoryReservations.flush();
+        assertEquals(0, fixtures.stockOf(product));
+    }
+
+    @Test
+    void concurrentCommitsAndReleasesBalanceTheCounters() throws Exception {
+        Product product = fixtures.createProduct("Mixed", 100);
+        int attempts = 200;
+        AtomicInteger committed = new AtomicInteger();
+        runConcurrently(attempts, i -> {
+            InventoryReservationService.Reservation reservation =
+                    inventoryReservations.reserve(Map.of(product.getId(), 1));
+            if (!reservation.isHeld()) {
+                return;
+            }
+            if (i % 2 == 0) {
+                reservation.attachOrder(-1L - i);
+                inventoryReservations.commit(reservation);
+                committed.incrementAndGet();
+            } else {
+                inventoryReservations.release(reservation);
+                // Releasing twice must not hand the stock back twice
+                inventoryReservations.release(reservation);
+            }
+        });
+
+        inventoryReservations.flush();
+        assertEquals(100 - committed.get(), fixtures.stockOf(product));
+
+        // Whatever was not sold is available again, and not a unit more
+        int remaining = 100 - committed.get();
+        assertTrue(inventoryReservations.reserve(Map.of(product.getId(), remaining)).isHeld());
+        assertFalse(inventoryReservations.reserve(Map.of(product.getId(), 1)).isHeld());
+    }
+
+    @Test
+    void reservationOfOpenTransactionIsNotSweptAway() throws Exception {
+        Product product = fixtures.createProduct("Last Unit", 1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            InventoryReservationService.Reservation reservation =
+                    inventoryReservations.reserve(Map.of(product.getId(), 1));
+            assertTrue(reservation.isHeld());
+            reservation.attachOrder(-1L);
+            sleep(100);
+            inventoryReservations.releaseExpired();
+            // The unit is still held by this transaction, so nobody else can take it
+            assertFalse(inventoryReservations.reserve(Map.of(product.getId(), 1)).isHeld());
+        });
+
+        inventoryReservations.flush();
+        assertEquals(0, fixtures.stockOf(product));
+        assertFalse(inventoryReservations.reserve(Map.of(product.getId(), 1)).isHeld());
+    }
+
+    @Test
+    void rolledBackTransactionReleasesItsReservation() {
+        Product product = fixtures.createProduct("Rollback", 1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            assertTrue(inventoryReservations.reserve(Map.of(product.getId(), 1)).isHeld());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(inventoryReservations.reserve(Map.of(product.getId(), 1)).isHeld());
+    }
+
+    @Test
+    void abandonedReservationWithoutTransactionExpires() {
+        Product product = fixtures.createProduct("Abandoned", 1);
+
+        assertTrue(inventoryReservations.reserve(Map.of(product.getId(), 1)).isHeld());
+        assertFalse(inventoryReservations.reserve(Map.of(product.getId(), 1)).isHeld());
+
+        sleep(100);
+        inventoryReservations.releaseExpired();
+        assertTrue(inventoryReservations.reserve(Map.of(product.getId(), 1)).isHeld());
+    }
+
+    private void runConcurrently(int tasks, Task task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private interface Task {
+        void run(int index);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
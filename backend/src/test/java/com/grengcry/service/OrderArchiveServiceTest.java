@@ -0,0 +1,161 @@
+package com.grengcry.service;
+
+import com.grengcry.TestFixtures;
+import com.grengcry.dto.response.OrderSummaryResponse;
+import com.grengcry.dto.response.PagedResponse;
+import com.grengcry.model.entity.Product;
+import com.grengcry.repository.ArchivePartitionRepository;
+import com.grengcry.repository.OrderArchiveRepository;
+import com.grengcry.repository.OrderRepository;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static com.grengcry.TestFixtures.cart;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class OrderArchiveServiceTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM order_items_archive");
+        orderArchiveRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void archivesOrdersFromBeforeTheStockPendingColumn() {
+        Product product = fixtures.createProduct("Old Stock", 10);
+        Long userId = fixtures.createUser("old@example.com").getId();
+        Long legacy = orderService.createOrder(userId, cart(product.getId(), 1)).getId();
+        Long pending = orderService.createOrder(userId, cart(product.getId(), 1)).getId();
+        // What an upgraded database holds: the column was added without a default
+        ageAndDeliver(legacy, null);
+        ageAndDeliver(pending, true);
+
+        assertEquals(1, orderArchiveService.archive());
+
+        assertFalse(orderRepository.existsById(legacy));
+        assertTrue(orderArchiveService.findOrder(legacy).isPresent());
+        assertEquals(1, orderArchiveService.findOrder(legacy).orElseThrow().getItems().size());
+        // Stock not yet written back keeps the order live
+        assertTrue(orderRepository.existsById(pending));
+    }
+
+    @Test
+    void historyAndExportIncludeArchivedOrders() throws Exception {
+        Product product = fixtures.createProduct("History", 10);
+        Long userId = fixtures.createUser("history@example.com").getId();
+        Long old = orderService.createOrder(userId, cart(product.getId(), 2)).getId();
+        Long recent = orderService.createOrder(userId, cart(product.getId(), 1)).getId();
+        ageAndDeliver(old, false);
+        assertEquals(1, orderArchiveService.archive());
+
+        PagedResponse<OrderSummaryResponse> page = orderService.getUserOrders(userId, null, null, 10, true);
+        assertEquals(List.of(recent, old), page.getData().stream().map(OrderSummaryResponse::getId).toList());
+        assertEquals(2L, page.getTotal());
+        OrderSummaryResponse.Line line = page.getData().get(1).getItems().get(0);
+        assertEquals("History", line.getProductName());
+        assertEquals(2, line.getQuantity());
+
+        // One row per page: the cursor carries over from the live rows into the archive
+        PagedResponse<OrderSummaryResponse> first = orderService.getUserOrders(userId, null, null, 1, false);
+        PagedResponse<OrderSummaryResponse> second =
+                orderService.getUserOrders(userId, null, first.getNextCursor(), 1, false);
+        assertEquals(recent, first.getData().get(0).getId());
+        assertEquals(old, second.getData().get(0).getId());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, orderExportService.export(OrderExportService.Format.CSV, null, null, null, out));
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        // Oldest first, archived order included
+        assertTrue(lines.get(1).startsWith(old + ","));
+        assertTrue(lines.get(2).startsWith(recent + ","));
+    }
+
+    @Test
+    void splitsFuturePartitionUpToMonthsAhead() {
+        OrderArchiveRepository partitions = mock(OrderArchiveRepository.class);
+        OrderArchiveService service = new OrderArchiveService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "orderArchiveRepository", partitions);
+        ReflectionTestUtils.setField(service, "partitionsAheadMonths", 2);
+        YearMonth now = YearMonth.now();
+        // One table is behind by a few months, the other is already far enough ahead
+        when(partitions.findPartitionNames("orders_archive")).thenReturn(List.of("p_before_2025",
+                ArchivePartitionRepository.partitionName(now.minusMonths(3)), "p_future"));
+        when(partitions.findPartitionNames("order_items_archive")).thenReturn(List.of(
+                ArchivePartitionRepository.partitionName(now.plusMonths(2)), "p_future"));
+
+        service.maintainPartitions();
+
+        verify(partitions).splitFuturePartition("orders_archive", List.of(now.minusMonths(2), now.minusMonths(1),
+                now, now.plusMonths(1), now.plusMonths(2)));
+        verify(partitions, never()).splitFuturePartition(eq("order_items_archive"), anyList());
+    }
+
+    @Test
+    void leavesUnpartitionedTablesAlone() {
+        // H2 builds the archive tables from the entities, without partitions
+        assertTrue(orderArchiveRepository.findPartitionNames("orders_archive").isEmpty());
+        orderArchiveService.maintainPartitions();
+    }
+
+    private void ageAndDeliver(Long orderId, Boolean stockPending) {
+        jdbcTemplate.update("UPDATE orders SET status = 'DELIVERED', stock_pending = ?, created_at = ? WHERE id = ?",
+                stockPending, LocalDateTime.now().minusYears(2), orderId);
+    }
+}
@@ -0,0 +1,124 @@
+package com.grengcry.service;
+
+import com.grengcry.TestFixtures;
+import com.grengcry.dto.request.CreateOrderRequest;
+import com.grengcry.model.entity.Product;
+import com.grengcry.model.entity.User;
+import com.grengcry.repository.IdempotencyKeyRepository;
+import com.grengcry.repository.OrderRepository;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import com.grengcry.security.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.grengcry.TestFixtures.cart;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class OrderIdempotencyServiceTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @AfterEach
+    void cleanUp() {
+        idempotencyKeyRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentDuplicatesCreateOneOrderAndReplayIt() throws Exception {
+        Product product = fixtures.createProduct("Retry Product", 10);
+        User user = fixtures.createUser("retry@example.com");
+        CreateOrderRequest request = cart(product.getId(), 2);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderIdempotencyService.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return orderIdempotencyService.createOrder(user.getId(), "checkout-1", request);
+            }));
+        }
+        start.countDown();
+        List<OrderIdempotencyService.Result> results = new ArrayList<>();
+        for (Future<OrderIdempotencyService.Result> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(1, results.stream().filter(OrderIdempotencyService.Result::replayed).count());
+        assertEquals(results.get(0).order().getId(), results.get(1).order().getId());
+        assertEquals(8, fixtures.stockOf(product));
+    }
+
+    @Test
+    void replayAndPayloadMismatchOverHttp() throws Exception {
+        Product product = fixtures.createProduct("Retry Product", 10);
+        CustomUserDetails principal = new CustomUserDetails(fixtures.createUser("http@example.com"));
+        String body = "{\"products\":[{\"productId\":" + product.getId() + ",\"quantity\":1}]}";
+        String otherBody = "{\"products\":[{\"productId\":" + product.getId() + ",\"quantity\":3}]}";
+
+        mockMvc.perform(post("/api/orders").with(user(principal)).header("Idempotency-Key", "k-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+        mockMvc.perform(post("/api/orders").with(user(principal)).header("Idempotency-Key", "k-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+        mockMvc.perform(post("/api/orders").with(user(principal)).header("Idempotency-Key", "k-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(otherBody))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error.code").value("CONFLICT"));
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(9, fixtures.stockOf(product));
+    }
+}
@@ -0,0 +1,121 @@
+package com.grengcry.service;
+
+import com.grengcry.TestFixtures;
+import com.grengcry.dto.request.CreateOrderRequest;
+import com.grengcry.exception.BadRequestException;
+import com.grengcry.model.entity.Product;
+import com.grengcry.repository.OrderRepository;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.grengcry.TestFixtures.cart;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class OrderServiceConcurrencyTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product product = fixtures.createProduct("Limited Edition", 10);
+        int buyers = 40;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            userIds.add(fixtures.createUser("buyer" + i + "@example.com").getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long userId : userIds) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(userId, cart(product.getId(), 1));
+                    succeeded.incrementAndGet();
+                } catch (BadRequestException ex) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(10, succeeded.get());
+        assertEquals(buyers - 10, rejected.get());
+        assertEquals(0, fixtures.stockOf(product));
+        assertEquals(10, orderRepository.count());
+    }
+
+    @Test
+    void lineWithoutStockRollsBackWholeOrder() {
+        Product plenty = fixtures.createProduct("Plenty", 50);
+        Product scarce = fixtures.createProduct("Scarce", 1);
+        Long userId = fixtures.createUser("cart@example.com").getId();
+
+        CreateOrderRequest request = cart(plenty.getId(), 5);
+        request.getProducts().addAll(cart(scarce.getId(), 2).getProducts());
+
+        assertThrows(BadRequestException.class, () -> orderService.createOrder(userId, request));
+        assertEquals(50, fixtures.stockOf(plenty));
+        assertEquals(1, fixtures.stockOf(scarce));
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    void repeatedLinesAreMergedBeforeTheStockCheck() {
+        Product product = fixtures.createProduct("Merged", 3);
+        Long userId = fixtures.createUser("merge@example.com").getId();
+
+        CreateOrderRequest request = cart(product.getId(), 2);
+        request.getProducts().addAll(cart(product.getId(), 2).getProducts());
+
+        assertThrows(BadRequestException.class, () -> orderService.createOrder(userId, request));
+        assertEquals(3, fixtures.stockOf(product));
+    }
+}
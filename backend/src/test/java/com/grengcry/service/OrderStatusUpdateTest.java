@@ -0,0 +1,139 @@
+package com.grengcry.service;
+
+import com.grengcry.TestFixtures;
+import com.grengcry.dto.request.BulkOrderStatusRequest;
+import com.grengcry.dto.request.CreateOrderRequest;
+import com.grengcry.dto.request.UpdateOrderStatusRequest;
+import com.grengcry.dto.response.BulkOrderStatusResponse;
+import com.grengcry.dto.response.BulkOrderStatusResponse.Outcome;
+import com.grengcry.model.entity.Product;
+import com.grengcry.model.enums.OrderStatus;
+import com.grengcry.repository.OrderRepository;
+import com.grengcry.repository.ProductRepository;
+import com.grengcry.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.grengcry.TestFixtures.cart;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class OrderStatusUpdateTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void bulkUpdateReportsEveryOutcome() {
+        Product product = fixtures.createProduct("Bulk", 20);
+        Long userId = fixtures.createUser("bulk@example.com").getId();
+        Long pending = orderService.createOrder(userId, cart(product.getId(), 1)).getId();
+        Long paid = orderService.createOrder(userId, cart(product.getId(), 1)).getId();
+        Long delivered = orderService.createOrder(userId, cart(product.getId(), 1)).getId();
+        bulk(OrderStatus.PAID, paid);
+        bulk(OrderStatus.SHIPPED, delivered);
+        bulk(OrderStatus.DELIVERED, delivered);
+        Long missing = delivered + 1000;
+
+        BulkOrderStatusResponse response = bulk(OrderStatus.PAID, pending, paid, missing, delivered);
+
+        Map<Long, BulkOrderStatusResponse.Result> results = response.getResults().stream()
+                .collect(Collectors.toMap(BulkOrderStatusResponse.Result::getId, Function.identity()));
+        assertEquals(Outcome.UPDATED, results.get(pending).getOutcome());
+        assertEquals(OrderStatus.PENDING, results.get(pending).getFrom());
+        assertEquals(Outcome.UNCHANGED, results.get(paid).getOutcome());
+        assertEquals(Outcome.NOT_FOUND, results.get(missing).getOutcome());
+        assertNull(results.get(missing).getFrom());
+        assertEquals(Outcome.ILLEGAL_TRANSITION, results.get(delivered).getOutcome());
+        assertEquals(OrderStatus.DELIVERED, results.get(delivered).getFrom());
+        assertEquals(1, response.getUpdated());
+        assertEquals(2, response.getRejected());
+
+        assertEquals(OrderStatus.PAID, statusOf(pending));
+        assertEquals(OrderStatus.PAID, statusOf(paid));
+        assertEquals(OrderStatus.DELIVERED, statusOf(delivered));
+    }
+
+    @Test
+    void bulkCancelRestocksExactlyOnce() {
+        Product first = fixtures.createProduct("First", 10);
+        Product second = fixtures.createProduct("Second", 10);
+        Long userId = fixtures.createUser("cancel@example.com").getId();
+        CreateOrderRequest request = cart(first.getId(), 3);
+        request.getProducts().addAll(cart(second.getId(), 2).getProducts());
+        Long a = orderService.createOrder(userId, request).getId();
+        Long b = orderService.createOrder(userId, cart(first.getId(), 4)).getId();
+        assertEquals(3, fixtures.stockOf(first));
+        assertEquals(8, fixtures.stockOf(second));
+
+        BulkOrderStatusResponse response = bulk(OrderStatus.CANCELLED, a, b);
+        assertEquals(2, response.getUpdated());
+        assertEquals(10, fixtures.stockOf(first));
+        assertEquals(10, fixtures.stockOf(second));
+
+        // Cancelling again is reported as unchanged and gives nothing back twice
+        response = bulk(OrderStatus.CANCELLED, a, b);
+        assertEquals(0, response.getUpdated());
+        response.getResults().forEach(r -> assertEquals(Outcome.UNCHANGED, r.getOutcome()));
+        assertEquals(10, fixtures.stockOf(first));
+        assertEquals(10, fixtures.stockOf(second));
+    }
+
+    @Test
+    void singleCancelRestocksExactlyOnce() {
+        Product product = fixtures.createProduct("Single", 5);
+        Long userId = fixtures.createUser("single@example.com").getId();
+        Long orderId = orderService.createOrder(userId, cart(product.getId(), 2)).getId();
+        assertEquals(3, fixtures.stockOf(product));
+
+        UpdateOrderStatusRequest cancel = new UpdateOrderStatusRequest();
+        cancel.setStatus(OrderStatus.CANCELLED);
+        orderService.updateOrderStatus(orderId, cancel);
+        orderService.updateOrderStatus(orderId, cancel);
+
+        assertEquals(5, fixtures.stockOf(product));
+        assertEquals(OrderStatus.CANCELLED, statusOf(orderId));
+    }
+
+    private BulkOrderStatusResponse bulk(OrderStatus status, Long... orderIds) {
+        BulkOrderStatusRequest request = new BulkOrderStatusRequest();
+        request.setOrderIds(List.of(orderIds));
+        request.setStatus(status);
+        return orderService.updateOrderStatuses(request);
+    }
+
+    private OrderStatus statusOf(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getStatus();
+    }
+}
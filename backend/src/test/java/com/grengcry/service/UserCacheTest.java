@@ -0,0 +1,61 @@
+package com.grengcry.service;
+
+import com.grengcry.TestFixtures;
+import com.grengcry.model.entity.User;
+import com.grengcry.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * users.email is compared case-insensitively by the database, so the cache has
+ * to treat every casing of an address as the same key.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestFixtures.class)
+class UserCacheTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void lookupIgnoresEmailCase() {
+        User user = fixtures.createUser("mixed@example.com");
+        assertEquals(user.getId(), userCache.findByEmail("mixed@example.com").orElseThrow().getId());
+
+        long hits = userCache.stats().get("byEmail").hits();
+        assertEquals(user.getId(), userCache.findByEmail("Mixed@Example.COM").orElseThrow().getId());
+        assertEquals(hits + 1, userCache.stats().get("byEmail").hits());
+    }
+
+    @Test
+    void evictionIgnoresEmailCase() {
+        User user = fixtures.createUser("gone@example.com");
+        userCache.findByEmail("gone@example.com").orElseThrow();
+
+        // The row goes away and the caller evicts with the casing it was given
+        userRepository.delete(user);
+        userCache.evict(user.getId(), "GONE@example.com");
+
+        assertTrue(userCache.findByEmail("gone@example.com").isEmpty());
+        assertTrue(userCache.findById(user.getId()).isEmpty());
+    }
+}